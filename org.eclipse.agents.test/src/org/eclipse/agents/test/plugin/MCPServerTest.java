@@ -20,6 +20,7 @@ import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.agents.IFactoryProvider;
 import org.eclipse.agents.contexts.MCPServer;
@@ -54,9 +55,11 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.modelcontextprotocol.client.McpAsyncClient;
 import io.modelcontextprotocol.client.McpClient;
 import io.modelcontextprotocol.client.McpSyncClient;
 import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
 import io.modelcontextprotocol.json.jackson.JacksonMcpJsonMapper;
 import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
 import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
@@ -72,7 +75,10 @@ import io.modelcontextprotocol.spec.McpSchema.ReadResourceRequest;
 import io.modelcontextprotocol.spec.McpSchema.ReadResourceResult;
 import io.modelcontextprotocol.spec.McpSchema.ResourceReference;
 import io.modelcontextprotocol.spec.McpSchema.ResourceTemplate;
+import io.modelcontextprotocol.spec.McpSchema.SubscribeRequest;
 import io.modelcontextprotocol.spec.McpSchema.TextContent;
+import io.modelcontextprotocol.spec.McpSchema.UnsubscribeRequest;
+import reactor.core.publisher.Mono;
 
 @TestInstance(Lifecycle.PER_CLASS)
 @TestMethodOrder(OrderAnnotation.class)
@@ -251,8 +257,7 @@ public class MCPServerTest {
          "name":"HelloWorld.java",
          "uri":"eclipse://editor/HelloWorld.java",
          "description":"Content of an Eclipse IDE Editor",
-         "mimeType":"text/plain",
-         "size":124
+         "mimeType":"text/plain"
       },
       "file":{
          "type":"resource_link",
@@ -312,8 +317,7 @@ public class MCPServerTest {
          "name":"HelloWorld.java",
          "uri":"eclipse://editor/HelloWorld.java",
          "description":"Content of an Eclipse IDE Editor",
-         "mimeType":"text/plain",
-         "size":124
+         "mimeType":"text/plain"
        },
        "file":{
          "type":"resource_link",
@@ -402,6 +406,139 @@ public class MCPServerTest {
 		server.stop();
 	}
 
+	@Test
+	@Order(13)
+	public void streamableServer() {
+		MCPServer streamableServer = new MCPServer("junit", "junit", 3029, new IFactoryProvider[] {
+				new FactoryProvider()
+		});
+		streamableServer.start();
+
+		HttpClientStreamableHttpTransport transport = HttpClientStreamableHttpTransport
+				.builder("http://localhost:3029")
+				.endpoint("/mcp")
+				.jsonMapper(new JacksonMcpJsonMapper(new ObjectMapper()))
+				.build();
+		McpSyncClient streamableClient = McpClient.sync(transport)
+				.requestTimeout(Duration.ofSeconds(10))
+				.build();
+		
+		// agents that only support HTTP with SSE connect to the same server
+		HttpClientSseClientTransport sseTransport = HttpClientSseClientTransport
+				.builder("http://localhost:3029/sse")
+				.jsonMapper(new JacksonMcpJsonMapper(new ObjectMapper()))
+				.build();
+		McpSyncClient sseClient = McpClient.sync(sseTransport)
+				.requestTimeout(Duration.ofSeconds(10))
+				.build();
+		try {
+			streamableClient.initialize();
+			Assert.assertFalse(streamableClient.listTools().tools().isEmpty());
+
+			streamableClient.subscribeResource(new SubscribeRequest("file://workspace/Project/HelloWorld.java"));
+			streamableClient.unsubscribeResource(new UnsubscribeRequest("file://workspace/Project/HelloWorld.java"));
+			
+			sseClient.initialize();
+			Assert.assertEquals(streamableClient.listTools().tools().size(), sseClient.listTools().tools().size());
+		} finally {
+			sseClient.closeGracefully();
+			streamableClient.closeGracefully();
+			streamableServer.stop();
+		}
+	}
+
+	@Test
+	@Order(14)
+	public void resourceUpdatedNotification() throws CoreException, InterruptedException {
+		String uri = "file://workspace/Project/Subscribed.txt";
+		IFile file = ResourcesPlugin.getWorkspace().getRoot().getProject("Project").getFile("Subscribed.txt");
+		if (!file.exists()) {
+			file.create(new ByteArrayInputStream("one".getBytes()), true, null);
+		}
+
+		MCPServer subscriptionServer = new MCPServer("junit", "junit", 3030, new IFactoryProvider[] {
+				new FactoryProvider()
+		});
+		subscriptionServer.start();
+
+		AtomicInteger updates = new AtomicInteger();
+		HttpClientSseClientTransport transport = HttpClientSseClientTransport
+				.builder("http://localhost:3030/sse")
+				.jsonMapper(new JacksonMcpJsonMapper(new ObjectMapper()))
+				.build();
+		McpAsyncClient subscriber = McpClient.async(transport)
+				.requestTimeout(Duration.ofSeconds(10))
+				.resourcesUpdateConsumer(contents -> {
+					updates.incrementAndGet();
+					return Mono.empty();
+				})
+				.build();
+		try {
+			subscriber.initialize().block();
+			subscriber.subscribeResource(new SubscribeRequest(uri)).block();
+
+			// both edits fall within one notification window, the marker does not change the content
+			file.setContents(new ByteArrayInputStream("two".getBytes()), true, false, null);
+			file.setContents(new ByteArrayInputStream("three".getBytes()), true, false, null);
+			file.createMarker(IMarker.TASK);
+
+			long end = System.currentTimeMillis() + 2000;
+			while (System.currentTimeMillis() < end) {
+				if (!Display.getDefault().readAndDispatch()) {
+					Thread.sleep(10);
+				}
+			}
+			Assert.assertEquals("notifications/resources/updated received", 1, updates.get());
+		} finally {
+			subscriber.closeGracefully().block();
+			subscriptionServer.stop();
+		}
+	}
+
+	@Test
+	@Order(15)
+	public void toggleFactories() {
+		// as when the factory's activity is disabled and enabled again
+		IFactoryProvider[] factories = new IFactoryProvider[] {
+				new FactoryProvider()
+		};
+		MCPServer toggledServer = new MCPServer("junit", "junit", 3031, new IFactoryProvider[0], factories);
+		toggledServer.start();
+
+		HttpClientSseClientTransport transport = HttpClientSseClientTransport
+				.builder("http://localhost:3031/sse")
+				.jsonMapper(new JacksonMcpJsonMapper(new ObjectMapper()))
+				.build();
+		McpSyncClient toggledClient = McpClient.sync(transport)
+				.requestTimeout(Duration.ofSeconds(10))
+				.build();
+		try {
+			toggledClient.initialize();
+			Assert.assertTrue(toggledClient.listTools().tools().isEmpty());
+
+			Assert.assertTrue("Added without restarting", toggledServer.addFactories(factories));
+			Assert.assertFalse(toggledClient.listTools().tools().isEmpty());
+			CompleteRequest request = new CompleteRequest(
+					new ResourceReference("file://workspace/{project}/{projectRelativePath}"),
+					new CompleteRequest.CompleteArgument("project", ""),
+					new CompleteRequest.CompleteContext(new HashMap<String, String>()));
+			Assert.assertTrue("Completions contains 'Project'",
+					toggledClient.completeCompletion(request).completion().values().contains("Project"));
+
+			Assert.assertTrue("Removed without restarting", toggledServer.removeFactories(factories));
+			Assert.assertTrue(toggledClient.listTools().tools().isEmpty());
+			Assert.assertTrue(toggledClient.listResourceTemplates().resourceTemplates().isEmpty());
+
+			// the session opened before the toggles is still served
+			Assert.assertTrue(toggledServer.addFactories(factories));
+			Assert.assertFalse(toggledClient.listTools().tools().isEmpty());
+			Assert.assertTrue(toggledClient.completeCompletion(request).completion().values().contains("Project"));
+		} finally {
+			toggledClient.closeGracefully();
+			toggledServer.stop();
+		}
+	}
+
 	public static void testEquals(String message, String left, String right) {
 		System.out.println(message + ":: " + left + " == " + right);
 		Assert.assertEquals(message, left, right);
@@ -26,6 +26,7 @@ import org.eclipse.agents.contexts.MCPServer;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
 import org.eclipse.agents.contexts.platform.FactoryProvider;
 import org.eclipse.agents.contexts.platform.resource.ConsoleAdapter;
+import org.eclipse.agents.contexts.platform.resource.ContentRange;
 import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
 import org.eclipse.agents.contexts.platform.resource.MarkerAdapter;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema;
@@ -241,12 +242,50 @@ public final class ResourceAdaptersTest {
 		Assert.assertEquals(2, problems.problems().length);
 	}
 	
+	@Test
+	public void testProblemsPaged() {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		ResourceSchema.Problems first = MarkerAdapter.getProblems(root, null, null, 1);
+		Assert.assertEquals(1, first.problems().length);
+		Assert.assertNotNull(first.nextCursor());
+		
+		ResourceSchema.Problems second = MarkerAdapter.getProblems(root, null, first.nextCursor(), 1);
+		Assert.assertEquals(1, second.problems().length);
+		Assert.assertNotEquals(first.problems()[0].id(), second.problems()[0].id());
+		
+		ResourceSchema.Problems last = MarkerAdapter.getProblems(root, null, second.nextCursor(), 1);
+		Assert.assertEquals(0, last.problems().length);
+		Assert.assertNull(last.nextCursor());
+	}
+	
+	@Test
+	public void testResolveCached() throws CoreException {
+		IResourceTemplate<?, ?> first = server.getResourceTemplate(relativeFile);
+		Assert.assertSame(first, server.getResourceTemplate(relativeFile));
+		
+		// adding a resource invalidates resolved adapters
+		IFile added = ResourcesPlugin.getWorkspace().getRoot().getProject("Project").getFile("Added.txt");
+		added.create(new ByteArrayInputStream(new byte[0]), true, null);
+		try {
+			IResourceTemplate<?, ?> second = server.getResourceTemplate(relativeFile);
+			Assert.assertNotSame(first, second);
+			Assert.assertEquals(first.getModel(), second.getModel());
+		} finally {
+			added.delete(true, null);
+		}
+	}
+	
 	private void validateFile(String uri) {
 		WorkspaceResourceAdapter adapter = (WorkspaceResourceAdapter)server.getResourceTemplate(uri);
 		Assert.assertEquals(absoluteFile1, adapter.toUri());
-		Assert.assertEquals(adapter.toContent(), content.trim());
+		// line delimiters are kept
+		Assert.assertEquals(content, adapter.toContent());
+		Assert.assertEquals("    public static void main(String[] args) {\n", 
+				adapter.toContent(ContentRange.parse("line=1&lines=1")).text());
 		Assert.assertFalse(adapter.toJson().toString().isBlank());
 		Assert.assertFalse(adapter.toResourceLink().toString().isBlank());
+		Assert.assertEquals(Long.valueOf(content.length()), adapter.toResourceLink().size());
+		Assert.assertNull(adapter.toResourceLink(false).size());
 		Assert.assertNotNull(adapter.getModel());
 		Assert.assertEquals(0, adapter.getChildren(DEPTH.CHILDREN).children().length);
 		
@@ -21,7 +21,15 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.agents.chat.controller.workspace.IWorkspaceChangeListener;
+import org.eclipse.agents.chat.controller.workspace.TextDiff;
+import org.eclipse.agents.chat.controller.workspace.WorkspaceChange;
 import org.eclipse.agents.chat.controller.workspace.WorkspaceController;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -33,7 +41,13 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.PartInitException;
@@ -197,6 +211,28 @@ public final class WorkspaceControllerTest {
 				controller.readFromFile(path, 1, null));
 	}
 	
+	@Test
+	public void testReadLargeFileLines() throws CoreException, IOException {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			builder.append("line " + i + (i % 3 == 0 ? "\r\n" : "\n"));
+		}
+		IFile largeFile = file.getProject().getFile("Large.txt");
+		try (ByteArrayInputStream stream = new ByteArrayInputStream(builder.toString().getBytes())) {
+			if (largeFile.exists()) {
+				largeFile.setContents(stream, true, false, null);
+			} else {
+				largeFile.create(stream, true, null);
+			}
+		}
+		
+		WorkspaceController controller = new WorkspaceController(UUID.randomUUID().toString());
+		Path path = (Path)largeFile.getRawLocation();
+		testEquals("line 64", controller.readFromFile(path, 64, 1));
+		testEquals("line 130\nline 131\nline 132", controller.readFromFile(path, 130, 3));
+		testEquals("line 499", controller.readFromFile(path, 499, null));
+	}
+	
 	//------------------------
 	// READ EDITOR TESTS
 	//------------------------
@@ -256,6 +292,68 @@ public final class WorkspaceControllerTest {
 		
 	}
 	
+	@Test
+	public void testWriteEditorKeepsPositions() throws BadLocationException {
+		WorkspaceController controller = new WorkspaceController(UUID.randomUUID().toString());
+		Path path = (Path)file.getRawLocation();
+		IDocument document = editor.getDocumentProvider().getDocument(editor.getEditorInput());
+		
+		// on the line before the one that changes
+		Position position = new Position(document.getLineOffset(1), lines[1].length());
+		document.addPosition(position);
+		try {
+			String changed = content.replace("Hello, World!", "Hello, World!!!");
+			controller.writeToEditor(path, editor, changed);
+			testEquals(changed, controller.readFromEditor(editor, null, null));
+			Assert.assertFalse(position.isDeleted());
+			Assert.assertEquals(content.indexOf(lines[1]), position.getOffset());
+			Assert.assertEquals(lines[1].length(), position.getLength());
+		} finally {
+			document.removePosition(position);
+			controller.writeToEditor(path, editor, content);
+		}
+		testEquals(content, controller.readFromEditor(editor, null, null));
+	}
+	
+	//------------------------
+	// TEXT DIFF TESTS
+	//------------------------
+	@Test
+	public void testCreateEditMiddleLine() {
+		MultiTextEdit edit = TextDiff.createEdit("one\ntwo\nthree\n", "one\n2\nthree\n");
+		assertReplace(edit, 4, 4, "2\n");
+	}
+	
+	@Test
+	public void testCreateEditCrlf() {
+		MultiTextEdit edit = TextDiff.createEdit("one\r\ntwo\r\nthree\r\n", "one\r\n2\r\nthree\r\n");
+		assertReplace(edit, 5, 5, "2\r\n");
+	}
+	
+	@Test
+	public void testCreateEditNoTrailingNewline() {
+		MultiTextEdit edit = TextDiff.createEdit("one\ntwo\nthree", "one\ntwo\n3");
+		assertReplace(edit, 8, 5, "3");
+	}
+	
+	@Test
+	public void testCreateEditEqual() {
+		Assert.assertEquals(0, TextDiff.createEdit(content, content).getChildrenSize());
+	}
+	
+	/**
+	 * Asserts the edit replaces a single range, only the changed line
+	 */
+	private void assertReplace(MultiTextEdit edit, int offset, int length, String text) {
+		TextEdit[] children = edit.getChildren();
+		Assert.assertEquals(1, children.length);
+		Assert.assertTrue(children[0] instanceof ReplaceEdit);
+		ReplaceEdit replace = (ReplaceEdit)children[0];
+		Assert.assertEquals(offset, replace.getOffset());
+		Assert.assertEquals(length, replace.getLength());
+		Assert.assertEquals(text, replace.getText());
+	}
+	
 	//------------------------
 	// WRITE FILE TESTS
 	//------------------------
@@ -274,6 +372,80 @@ public final class WorkspaceControllerTest {
 		testEquals(content, controller.readFromFile(path, null, null));
 		
 	}
+	
+	@Test
+	public void testConcurrentWriteFile() throws Exception {
+		IFile concurrentFile = file.getProject().getFile("Concurrent.txt");
+		try (ByteArrayInputStream stream = new ByteArrayInputStream(content.getBytes())) {
+			if (concurrentFile.exists()) {
+				concurrentFile.setContents(stream, true, false, null);
+			} else {
+				concurrentFile.create(stream, true, null);
+			}
+		}
+		
+		WorkspaceController controller = new WorkspaceController(UUID.randomUUID().toString());
+		AtomicInteger added = new AtomicInteger();
+		AtomicInteger modified = new AtomicInteger();
+		controller.addListener(new IWorkspaceChangeListener() {
+			public void changeAdded(String sessionId, WorkspaceChange change) {
+				added.incrementAndGet();
+			}
+			public void changeModified(String sessionID, WorkspaceChange change) {
+				modified.incrementAndGet();
+			}
+			public void changeRemoved(String sessionId, WorkspaceChange change) {
+			}
+		});
+		
+		Path path = (Path)concurrentFile.getRawLocation();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] writes = new Future<?>[8];
+			for (int i = 0; i < writes.length; i++) {
+				String written = modifiedContent + "\n// write " + i;
+				writes[i] = executor.submit(() -> controller.writeToFile(path, written));
+			}
+			for (Future<?> write: writes) {
+				write.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		Assert.assertEquals(1, added.get());
+		Assert.assertEquals(7, modified.get());
+		Assert.assertNotNull(controller.getChange(path));
+		Assert.assertTrue(controller.readFromFile(path, null, null).startsWith(modifiedContent + "\n// write "));
+	}
+	
+	@Test
+	public void testWriteFilesBatched() throws Exception {
+		WorkspaceController controller = new WorkspaceController(UUID.randomUUID().toString());
+		Path[] paths = new Path[5];
+		for (int i = 0; i < paths.length; i++) {
+			IFile batchedFile = file.getProject().getFile("Batched" + i + ".txt");
+			try (ByteArrayInputStream stream = new ByteArrayInputStream(content.getBytes())) {
+				if (batchedFile.exists()) {
+					batchedFile.setContents(stream, true, false, null);
+				} else {
+					batchedFile.create(stream, true, null);
+				}
+			}
+			paths[i] = (Path)batchedFile.getRawLocation();
+		}
+		
+		CompletableFuture<?>[] writes = new CompletableFuture<?>[paths.length];
+		for (int i = 0; i < paths.length; i++) {
+			writes[i] = controller.writeToFileAsync(paths[i], modifiedContent + "\n// file " + i);
+		}
+		CompletableFuture.allOf(writes).get();
+		
+		for (int i = 0; i < paths.length; i++) {
+			testEquals(modifiedContent + "\n// file " + i, controller.readFromFile(paths[i], null, null));
+			Assert.assertNotNull(controller.getChange(paths[i]));
+		}
+	}
 		
 	
 	////////////////
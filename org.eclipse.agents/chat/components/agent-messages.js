@@ -28,6 +28,16 @@ class AgentMessages extends DivTemplate {
 
 	addContentBlock(block) {
 		this.markdown.addContentBlock(block);
+		this.updateAnchors();
+	}
+
+	// the final render replaces the tail, so its anchors need to be made focusable again
+	close() {
+		this.markdown.close();
+		this.updateAnchors();
+	}
+
+	updateAnchors() {
 		this.anchorElements = this.markdown.querySelectorAll('a');
 		this.anchorElements.forEach(anchor => {
 			anchor.tabIndex = 0;
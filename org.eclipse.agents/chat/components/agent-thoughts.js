@@ -23,6 +23,10 @@ class AgentThoughts extends DivTemplate {
 	}
 
 	connectedCallback() {
+		// turns are detached and reattached as the transcript scrolls, only initialize once
+		if (this.markdown != null) {
+			return;
+		}
 		// Create and append children to the shadow root
 		this.markdown = this.root.querySelector('span chunked-markdown');
 		this.button = this.root.querySelector('span button');
@@ -20,10 +20,13 @@ class Markdown extends HTMLElement {
 }
 customElements.define("markdown-div", Markdown, { extends: "div" });
 
+// Markdown is rendered incrementally: blocks that can no longer change are parsed and
+// highlighted once into the head, only the trailing open block is re-rendered per chunk
 class ChunkedMarkdown extends Markdown {
   constructor() {
     super();
-    this.chunks = [];
+    this.source = "";
+    this.committed = 0;
 
     this.TEXT = "text";
     this.IMAGE = "image";
@@ -37,9 +40,9 @@ class ChunkedMarkdown extends Markdown {
 
   addContentBlock(block) {
     if (this.lastBlockType === this.RESOURCE && block.type !== this.RESOURCE) {
-      this.chunks.push("\n```\n");
+      this.appendSource("\n```\n");
     } else if (this.lastBlockType !== this.RESOURCE && block.type === this.RESOURCE) {
-      this.chunks.push("\n```text\n");
+      this.appendSource("\n```text\n");
     }
 
     if (block.type === "text") {
@@ -54,19 +57,94 @@ class ChunkedMarkdown extends Markdown {
       this.addResource(block);
     }
 
-    if (block.type  === this.RESOURCE) {
-      console.log(this.chunks.join("") + "\n```");
-      super.setMarkdown(this.chunks.join("") + "\n```");
-    } else {
-      console.log(this.chunks.join(""));
-      super.setMarkdown(this.chunks.join(""));
+    this.lastBlockType = block.type;
+
+    const boundary = this.findBoundary();
+    if (boundary > this.committed) {
+      this.commit(this.source.substring(this.committed, boundary));
+      this.committed = boundary;
     }
+    this.renderTail();
+  }
 
-    this.lastBlockType = block.type;
+  // Called once no more blocks will be added, renders and highlights the remainder
+  close() {
+    if (this.lastBlockType === this.RESOURCE) {
+      this.appendSource("\n```\n");
+      this.lastBlockType = this.NONE;
+    }
+    if (this.committed < this.source.length) {
+      this.commit(this.source.substring(this.committed));
+      this.committed = this.source.length;
+    }
+    this.renderTail();
+  }
+
+  appendSource(markdown) {
+    this.source += markdown;
+  }
+
+  // Returns the offset after the last blank line outside a code fence that is
+  // followed by an unindented line, everything before it forms complete blocks
+  findBoundary() {
+    let boundary = this.committed;
+    let candidate = -1;
+    let inFence = false;
+    let pos = this.committed;
+    while (pos < this.source.length) {
+      let end = this.source.indexOf("\n", pos);
+      const complete = end >= 0;
+      if (!complete) {
+        end = this.source.length;
+      }
+      const line = this.source.substring(pos, end);
+      if (line.trim() === "") {
+        if (!inFence && complete) {
+          candidate = end + 1;
+        }
+      } else {
+        // an indented line may continue a list item across the blank line
+        if (candidate >= 0 && !/^[ \t]/.test(line)) {
+          boundary = candidate;
+        }
+        candidate = -1;
+        if (complete && /^ {0,3}(```|~~~)/.test(line)) {
+          inFence = !inFence;
+        }
+      }
+      pos = end + 1;
+    }
+    return boundary;
+  }
+
+  commit(markdown) {
+    this.initialize();
+    const template = document.createElement("template");
+    template.innerHTML = marked.parse(markdown);
+    Prism.highlightAllUnder(template.content);
+    this.head.append(template.content);
+  }
+
+  renderTail() {
+    this.initialize();
+    let tail = this.source.substring(this.committed);
+    if (this.lastBlockType === this.RESOURCE) {
+      tail += "\n```";
+    }
+    this.tail.innerHTML = tail.length > 0 ? marked.parse(tail) : "";
+  }
+
+  initialize() {
+    if (this.head == null) {
+      this.head = document.createElement("div");
+      this.tail = document.createElement("div");
+      this.appendChild(this.head);
+      this.appendChild(this.tail);
+    }
   }
 
   addText(block) {
-    this.chunks.push(block.text);
+    this.appendSource(block.text);
   }
 
   addImage(block) {
@@ -78,29 +156,29 @@ class ChunkedMarkdown extends Markdown {
   }
 
   addResourceLink(block) {
-    this.chunks.push(`<span class="resource-link">`);
+    this.appendSource(`<span class="resource-link">`);
     let addedImage = false;
     if (getProgramIcon != null) {
       let base64Icon = getProgramIcon(block.uri);
       if (base64Icon != null) {
-        this.chunks.push(
+        this.appendSource(
           `<img src="` + base64Icon + `"/> `
         );
         addedImage = true;
       }
     }
   
-    this.chunks.push(`<a href="` + block.uri + `">` + block.name + `</a>`);
-    this.chunks.push(`</span>`);
+    this.appendSource(`<a href="` + block.uri + `">` + block.name + `</a>`);
+    this.appendSource(`</span>`);
   }
 
   addResource(block) {
     //TODO do something with block.resource.uri;
 
     if (block.resource.text != undefined) {
-      this.chunks.push(block.resource.text);
+      this.appendSource(block.resource.text);
     } else if (block.resource.blob != undefined) {
-      this.chunks.push(block.resource.blob);
+      this.appendSource(block.resource.blob);
     }
   }
 }
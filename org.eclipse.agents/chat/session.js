@@ -40,50 +40,121 @@ const agent_messages= "agent-messages";
 const tool_call= "tool-call";
 
 function acceptPromptRequest(promptRequest) {
-	addChild(document.body, "prompt-turn");
-	const json = JSON.parse(promptRequest);
-	addChild(getTurn(), session_prompt);
-	for (let block of json.prompt) {
-		getTurnMessage().addContentBlock(block);
-	}
+	applyUpdate({ type: "prompt_request", request: JSON.parse(promptRequest) });
 	scrollToBottom();
 }
 
 function acceptSessionUserMessageChunk(blockChunk) {
-	if (getTurnMessage() == null || getTurnMessage().tagName.toLowerCase() !== user_messages) {
-		addChild(getTurn(), user_messages);
-	}
-	getTurnMessage().addContentBlock(JSON.parse(blockChunk));
+	applyUpdate({ type: _user_message_chunk, block: JSON.parse(blockChunk) });
 	scrollToBottom();	
 }
 
 function acceptSessionAgentThoughtChunk(blockChunk) {
-	if (getTurnMessage() == null || getTurnMessage().tagName.toLowerCase() !== agent_thoughts) {
-		addChild(getTurn(), agent_thoughts);
-	}
-	getTurnMessage().addContentBlock(JSON.parse(blockChunk));
+	applyUpdate({ type: _agent_thought_chunk, block: JSON.parse(blockChunk) });
 	scrollToBottom();
 }
 
 function acceptSessionAgentMessageChunk(blockChunk) {
-	if (getTurnMessage() == null || getTurnMessage().tagName.toLowerCase() !== agent_messages) {
-		addChild(getTurn(), agent_messages);
-	}
-	getTurnMessage().addContentBlock(JSON.parse(blockChunk));
+	applyUpdate({ type: _agent_message_chunk, block: JSON.parse(blockChunk) });
 	scrollToBottom();
 }
 
 function acceptSessionToolCall(toolCallId, title, kind, status, content, options) {
-	addChild(getTurn(), tool_call).id = toolCallId;
 	let jsonOptions;
 	if (options != null) {
 		jsonOptions = JSON.parse(options);
 	}
-	getTurnMessage().create(toolCallId, title, kind, status, content, jsonOptions);
+	applyUpdate({ type: "tool_call", toolCallId: toolCallId, title: title, kind: kind, status: status,
+		content: content, options: jsonOptions });
 	scrollToBottom();
 }
 
 function acceptSessionToolCallUpdate(toolCallId, status, content) {
+	if (applyUpdate({ type: "tool_call_update", toolCallId: toolCallId, status: status, content: content })) {
+		scrollToBottom();
+	}
+}
+
+// Batch entry point used by ChatBrowser, applies a frame's worth of updates and scrolls once
+function acceptUpdates(updates) {
+	for (let update of updates) {
+		try {
+			applyUpdate(update);
+		} catch (e) {
+			// one bad update must not drop the rest of the batch
+			console.log(e);
+		}
+	}
+	scrollToBottom();
+}
+
+// Renders the update and keeps it with its turn, so the turn can be rendered again once collapsed
+function applyUpdate(update) {
+	const rendered = renderUpdate(update);
+	const turn = getTurn();
+	if (update.type !== "clear" && turn != null && turn.updates != null) {
+		turn.updates.push(update);
+	}
+	return rendered;
+}
+
+function renderUpdate(update) {
+	switch (update.type) {
+		case "prompt_request":
+			renderPromptRequest(update.request);
+			break;
+		case _user_message_chunk:
+			renderChunk(user_messages, update.block);
+			break;
+		case _agent_thought_chunk:
+			renderChunk(agent_thoughts, update.block);
+			break;
+		case _agent_message_chunk:
+			renderChunk(agent_messages, update.block);
+			break;
+		case "tool_call":
+			renderToolCall(update.toolCallId, update.title, update.kind, update.status, update.content, update.options);
+			break;
+		case "tool_call_update":
+			return renderToolCallUpdate(update.toolCallId, update.status, update.content);
+		case "clear":
+			clearContents();
+			break;
+	}
+	return true;
+}
+
+function renderPromptRequest(promptRequest) {
+	closeTurnMessage();
+	const turn = addChild(document.body, "prompt-turn");
+	turn.updates = [];
+	renderPrompt(promptRequest);
+	observeTurn(turn);
+}
+
+function renderPrompt(promptRequest) {
+	addChild(getTurn(), session_prompt);
+	for (let block of promptRequest.prompt) {
+		getTurnMessage().addContentBlock(block);
+	}
+	closeTurnMessage();
+}
+
+function renderChunk(kind, block) {
+	if (getTurnMessage() == null || getTurnMessage().tagName.toLowerCase() !== kind) {
+		closeTurnMessage();
+		addChild(getTurn(), kind);
+	}
+	getTurnMessage().addContentBlock(block);
+}
+
+function renderToolCall(toolCallId, title, kind, status, content, options) {
+	closeTurnMessage();
+	addChild(getTurn(), tool_call).id = toolCallId;
+	getTurnMessage().create(toolCallId, title, kind, status, content, options);
+}
+
+function renderToolCallUpdate(toolCallId, status, content) {
 	const toolCall = getTurn().querySelector('tool-call#' + toolCallId);
 	
 	if (toolCall != null) {
@@ -95,8 +166,9 @@ function acceptSessionToolCallUpdate(toolCallId, status, content) {
 //				toolCall.updateContent(content);
 //			}
 //		}
-		scrollToBottom();
+		return true;
 	}
+	return false;
 }
 
 function setStyle(fontSize, foreground, background, link, linkActive, infoFg, infoBg) {
@@ -112,8 +184,11 @@ function setStyle(fontSize, foreground, background, link, linkActive, infoFg, in
 	
 }
 
+// set while a collapsed turn is rendered again, updates otherwise go to the last turn
+let expandingTurn = null;
+
 function getTurn() {
-	return document.body.lastElementChild
+	return expandingTurn != null ? expandingTurn : document.body.lastElementChild;
 }
 
 function getTurnMessage() {
@@ -128,6 +203,10 @@ function addChild(parent, kind) {
 
 function clearContents() {
 	
+	if (turnObserver != null) {
+		turnObserver.disconnect();
+	}
+	
 	const body = document.body;
 	const children = Array.from(body.children);
 	const tagsToKeep = ['script', 'template'];
@@ -139,6 +218,110 @@ function clearContents() {
   	});
 }
 
+// Streaming into a message has ended, so its markdown can be rendered and highlighted in full
+function closeTurnMessage() {
+	const turn = getTurn();
+	const message = turn == null ? null : turn.lastElementChild;
+	if (message != null && typeof message.close === "function") {
+		message.close();
+	} else if (message != null && message.markdown != null) {
+		message.markdown.close();
+	}
+}
+
+// Older turns that are scrolled out of view are collapsed into empty placeholders of the same
+// height. Their content is discarded and rendered again from the turn's updates once they come
+// close to the viewport again
+const live_turns = 3;
+const visibleTurns = new WeakSet();
+const turnObserver = typeof IntersectionObserver === "undefined" ? null :
+	new IntersectionObserver(entries => {
+		for (let entry of entries) {
+			if (entry.isIntersecting) {
+				visibleTurns.add(entry.target);
+				expandTurn(entry.target);
+			} else {
+				visibleTurns.delete(entry.target);
+				if (!isRecentTurn(entry.target)) {
+					collapseTurn(entry.target, entry.boundingClientRect.height);
+				}
+			}
+		}
+	}, { rootMargin: "2000px 0px" });
+
+function observeTurn(turn) {
+	if (turnObserver == null) {
+		return;
+	}
+	turnObserver.observe(turn);
+
+	// the turn that just left the live window gets no entry of its own
+	let older = turn;
+	for (let i = 0; i < live_turns && older != null; i++) {
+		older = previousTurn(older);
+	}
+	if (older != null && !visibleTurns.has(older)) {
+		// observing it again delivers a fresh entry with its current height, without forcing a layout here
+		turnObserver.unobserve(older);
+		turnObserver.observe(older);
+	}
+}
+
+function isRecentTurn(turn) {
+	let newer = turn;
+	for (let i = 0; i < live_turns; i++) {
+		newer = newer.nextElementSibling;
+		if (newer == null) {
+			return true;
+		}
+	}
+	return false;
+}
+
+function previousTurn(turn) {
+	const previous = turn.previousElementSibling;
+	return previous != null && previous.tagName.toLowerCase() === "prompt-turn" ? previous : null;
+}
+
+// The turn's updates are kept as a single string while it is collapsed
+function collapseTurn(turn, height) {
+	if (turn.collapsed != null || turn.updates == null) {
+		return;
+	}
+	turn.collapsed = JSON.stringify(turn.updates);
+	turn.updates = null;
+	turn.style.height = height + "px";
+	turn.replaceChildren();
+}
+
+function expandTurn(turn) {
+	if (turn.collapsed == null) {
+		return;
+	}
+	const updates = JSON.parse(turn.collapsed);
+	turn.collapsed = null;
+	turn.style.height = "";
+
+	expandingTurn = turn;
+	try {
+		for (let update of updates) {
+			try {
+				if (update.type === "prompt_request") {
+					renderPrompt(update.request);
+				} else {
+					renderUpdate(update);
+				}
+			} catch (e) {
+				console.log(e);
+			}
+		}
+		closeTurnMessage();
+	} finally {
+		expandingTurn = null;
+	}
+	turn.updates = updates;
+}
+
 function scrollToBottom() {
 	window.scrollTo(0, document.body.scrollHeight);
 }
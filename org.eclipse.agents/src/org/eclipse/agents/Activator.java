@@ -18,7 +18,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 import org.eclipse.agents.contexts.ExtensionManager;
 import org.eclipse.agents.contexts.Images;
@@ -53,6 +55,7 @@ public class Activator extends AbstractUIPlugin {
 	private ScopedPreferenceStore preferenceStore = null;
 	private ExtensionManager extensionManager = null;
 	private ServerManager serverManager = null;
+	private final Set<String> scratchDirectories = new HashSet<String>();
 
 	/**
 	 * The constructor
@@ -114,6 +117,29 @@ public class Activator extends AbstractUIPlugin {
 		return serverManager;
 	}
 
+	/**
+	 * Returns a folder in the plug-in's state location for files that only live as long as this run.
+	 * Files left behind by a previous run are of no use to this one, and are deleted the first time
+	 * the folder is requested.
+	 */
+	public File getScratchDirectory(String name) throws IOException {
+		File directory = getStateLocation().append(name).toFile();
+		synchronized (scratchDirectories) {
+			if (scratchDirectories.add(name)) {
+				File[] stale = directory.listFiles();
+				if (stale != null) {
+					for (File file: stale) {
+						file.delete();
+					}
+				}
+			}
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Cannot create " + directory); //$NON-NLS-1$
+			}
+		}
+		return directory;
+	}
+
 	@Override
 	protected void initializeImageRegistry(ImageRegistry reg) {
 		for (int i = 0; i < Images.imagelist.length; i++) {
@@ -44,6 +44,7 @@ public class Tracer implements DebugOptionsListener, DebugTrace {
 	};
 	
 	private static DebugTrace trace = null;
+	private static DebugOptions debugOptions = null;
     private static Tracer instance = null;
 	private static DebugTrace nullTrace = new DebugTrace() {
 		@Override
@@ -79,6 +80,7 @@ public class Tracer implements DebugOptionsListener, DebugTrace {
 	
 	@Override
 	public void optionsChanged(DebugOptions options) {
+		debugOptions = options;
 		trace = options.newDebugTrace(Activator.PLUGIN_ID);
 		trace.trace(CONTEXTS, toString());
 } 
@@ -93,6 +95,16 @@ public class Tracer implements DebugOptionsListener, DebugTrace {
 		return trace;
 	}
 
+	/**
+	 * Allows hot paths to skip building trace messages when an option is off
+	 */
+	public static boolean isEnabled(String option) {
+		if (trace == null || disableTracing || debugOptions == null) {
+			return false;
+		}
+		return debugOptions.isDebugEnabled() && debugOptions.getBooleanOption(Activator.PLUGIN_ID + option, false);
+	}
+
 	@Override
 	public void trace(String option, String message) {
 		trace().trace(option, message);
@@ -20,14 +20,17 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
 import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.Outcome;
@@ -64,6 +67,7 @@ import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.ui.IEditorDescriptor;
 import org.eclipse.ui.ISharedImages;
@@ -77,7 +81,9 @@ import org.eclipse.ui.ide.IDE;
 import org.eclipse.ui.navigator.CommonNavigator;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class ChatBrowser {
@@ -86,6 +92,15 @@ public class ChatBrowser {
 	private Browser browser;
 	private File source;
 	Map<String, CompletableFuture<RequestPermissionResponse>> pendingResponses = new HashMap<>();
+
+	// updates are rendered at most once per frame
+	private static final int FRAME_MILLIS = 16;
+	private final List<ObjectNode> pendingUpdates = new ArrayList<ObjectNode>();
+	private boolean flushScheduled = false;
+	private boolean loaded = false;
+	
+	// data uris of program icons, by image descriptor
+	private final Map<ImageDescriptor, String> programIcons = new HashMap<ImageDescriptor, String>();
 	
 	public ChatBrowser(Composite parent, int style) {
 		mapper = new ObjectMapper();
@@ -103,7 +118,11 @@ public class ChatBrowser {
 			@Override
 			public Object function(Object[] args) {
 				Tracer.trace().trace(Tracer.BROWSER, "getProgramIcon:" + args[0]);
-				WorkspaceResourceAdapter adapter = new WorkspaceResourceAdapter(args[0].toString());
+				String uri = args[0].toString();
+				// resolved through the server's router when running, which caches workspace adapters
+				IResourceTemplate<?, ?> template = Activator.getDefault().getServerManager().getResourceTemplate(uri);
+				WorkspaceResourceAdapter adapter = template instanceof WorkspaceResourceAdapter ?
+						(WorkspaceResourceAdapter)template : new WorkspaceResourceAdapter(uri);
 				IResource resource = adapter.getModel();
 				final ImageDescriptor imageDescriptor;
 				if (resource instanceof IFile) {
@@ -122,6 +141,10 @@ public class ChatBrowser {
 				}
 				
 				if (imageDescriptor != null) {
+					String icon = programIcons.get(imageDescriptor);
+					if (icon != null) {
+						return icon;
+					}
 					StringBuffer result = new StringBuffer();
 					
 					Activator.getDisplay().syncExec(()-> {
@@ -138,6 +161,7 @@ public class ChatBrowser {
 					});
 
 					Tracer.trace().trace(Tracer.BROWSER, result.toString());
+					programIcons.put(imageDescriptor, result.toString());
 					return result.toString();
 				}
 				return null;
@@ -185,6 +209,9 @@ public class ChatBrowser {
 				
 				browser.setVisible(true);
 				
+				loaded = true;
+				flush();
+				
 				browser.addLocationListener(LocationListener.changingAdapter(event -> {
 					event.doit = false;
 					
@@ -311,171 +338,174 @@ public class ChatBrowser {
 	}
 
 	public void acceptPromptRequest(PromptRequest request) {
-		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(request);
-				String fxn = "acceptPromptRequest('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
-		}
+		ObjectNode update = createUpdate("prompt_request");
+		update.set("request", mapper.valueToTree(request));
+		enqueue(update);
 	}
 
-//	public void acceptSessionNotification(SessionNotification notification) {
-//		if (!browser.isDisposed()) {
-//			try {
-//				String json = mapper.writeValueAsString(notification.update());
-//				String fxn = "acceptSessionNotification('" + sanitize(json) + "');";
-//				Tracer.trace().trace(Tracer.BROWSER, fxn);
-//				Activator.getDisplay().syncExec(()-> {
-//					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-//				});
-//			} catch (JsonProcessingException e) {
-//				e.printStackTrace();
-//			}
-//		}
-//	}
-
 	public void acceptSessionUserMessageChunk(ContentBlock block) {
-		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(block);
-				String fxn = "acceptSessionUserMessageChunk('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
-		}
+		acceptChunk("user_message_chunk", block);
 	}
 
 	public void acceptSessionAgentThoughtChunk(ContentBlock block) {
-		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(block);
-				String fxn = "acceptSessionAgentThoughtChunk('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-//				new JsonParser().parse(json);
-//				new JsonParser().parse(sanitize(json));
-				
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
-		}
+		acceptChunk("agent_thought_chunk", block);
 	}
 
 	public void acceptSessionAgentMessageChunk(ContentBlock block) {
-		if (!browser.isDisposed()) {
-			try {
-				String json = mapper.writeValueAsString(block);
-				String fxn = "acceptSessionAgentMessageChunk('" + sanitize(json) + "');";
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
-		}
+		acceptChunk("agent_message_chunk", block);
 	}
 	
 	public void acceptSessionToolCall(String toolCallId, String title, ToolKind kind, ToolCallStatus status) {
-		if (!browser.isDisposed()) {
-
-			if (ToolKind.other.equals(kind)) {
-				//TODO Gemini puts the input into title for MCP calls, needs gemini fix
-				title = toolCallId.replaceAll("-\\d+$", "");
-			}
-			
-			String fxn = String.format("acceptSessionToolCall(`%s`, `%s`, `%s`, `%s`);", 
-					toolCallId, title, kind, status);
-			Tracer.trace().trace(Tracer.BROWSER, fxn);
-			Activator.getDisplay().syncExec(()-> {
-				Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-			});
+		if (ToolKind.other.equals(kind)) {
+			//TODO Gemini puts the input into title for MCP calls, needs gemini fix
+			title = toolCallId.replaceAll("-\\d+$", "");
 		}
+		
+		ObjectNode update = createUpdate("tool_call");
+		update.put("toolCallId", toolCallId);
+		update.put("title", title);
+		update.put("kind", String.valueOf(kind));
+		update.put("status", String.valueOf(status));
+		enqueue(update);
 	}
 
 
 	public void  acceptSessionToolCallUpdate(String toolCallId, ToolCallStatus status, ToolCallContent[] content) {
-		if (!browser.isDisposed()) {
-			try {
-			String contentJson = null;
-			if (content != null) {
-				contentJson = mapper.writeValueAsString(content);
-				if (contentJson != null) {
-					contentJson = sanitize(contentJson);
-				}
-			}
-			String formattedFxn = String.format("acceptSessionToolCallUpdate(`%s`, `%s`, `%s`);", 
-					toolCallId, status, contentJson);
-			String fxn = formattedFxn.replaceAll("`null`", "null");
-			Tracer.trace().trace(Tracer.BROWSER, fxn);
-			Activator.getDisplay().syncExec(()-> {
-				Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-			});
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
+		try {
+			ObjectNode update = createUpdate("tool_call_update");
+			update.put("toolCallId", toolCallId);
+			update.put("status", String.valueOf(status));
+			update.put("content", content == null ? null : mapper.writeValueAsString(content));
+			enqueue(update);
+		} catch (JsonProcessingException e) {
+			e.printStackTrace();
 		}
 	}
 	
 	public void acceptPermissionRequest(RequestPermissionRequest request, CompletableFuture<RequestPermissionResponse> pendingResponse) {
-		if (!browser.isDisposed()) {
-			try {
-				ToolCallUpdate toolCall = request.toolCall();
-				String toolCallId = toolCall.toolCallId();
-				String optionsJson = mapper.writeValueAsString(request.options());
-				String title = toolCall.title();
+		try {
+			ToolCallUpdate toolCall = request.toolCall();
+			String toolCallId = toolCall.toolCallId();
+			String title = toolCall.title();
 
-				if (ToolKind.other.equals(toolCall.kind())) {
-					//TODO Gemini puts the input into title for MCP calls
-					title = toolCallId.replaceAll("-\\d+$", "");
-				}
-				
-				String contentJson = null;
-				ToolCallContent[] contents = toolCall.content();
-				if (contents != null && contents.length > 0) {
-					ToolCallContent content = contents[0];
-					contentJson = mapper.writeValueAsString(content);
-					if (contentJson != null) {
-						contentJson = sanitize(contentJson);
-					}
-				}
+			if (ToolKind.other.equals(toolCall.kind())) {
+				//TODO Gemini puts the input into title for MCP calls
+				title = toolCallId.replaceAll("-\\d+$", "");
+			}
+			
+			String contentJson = null;
+			ToolCallContent[] contents = toolCall.content();
+			if (contents != null && contents.length > 0) {
 				// TODO: for now, we pass in the raw content
 				// We'll need to render content differently based on type. e.g. regular/diff/terminal
-				String formattedFxn = String.format("acceptSessionToolCall(`%s`, `%s`, `%s`, `%s`, `%s`, `%s`);",
-						toolCallId, title, toolCall.kind(), toolCall.status(), contentJson, sanitize(optionsJson));
-				// handle when content or options are empty
-				String fxn = formattedFxn.replaceAll("`null`", "null");
-				Tracer.trace().trace(Tracer.BROWSER, fxn);
-				Activator.getDisplay().syncExec(()-> {
-					Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-				});
-				
-				pendingResponses.put(toolCallId, pendingResponse);
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
+				contentJson = mapper.writeValueAsString(contents[0]);
 			}
+
+			ObjectNode update = createUpdate("tool_call");
+			update.put("toolCallId", toolCallId);
+			update.put("title", title);
+			update.put("kind", String.valueOf(toolCall.kind()));
+			update.put("status", String.valueOf(toolCall.status()));
+			update.put("content", contentJson);
+			update.set("options", mapper.valueToTree(request.options()));
+
+			pendingResponses.put(toolCallId, pendingResponse);
+			enqueue(update);
+		} catch (JsonProcessingException e) {
+			e.printStackTrace();
 		}
 	}
 	
 	public void clearContent() {
-		if (!browser.isDisposed()) {
-			String fxn = "clearContents();";
+		enqueue(createUpdate("clear"));
+	}
+
+	private void acceptChunk(String type, ContentBlock block) {
+		ObjectNode update = createUpdate(type);
+		update.set("block", mapper.valueToTree(block));
+		enqueue(update);
+	}
+
+	private ObjectNode createUpdate(String type) {
+		ObjectNode update = mapper.createObjectNode();
+		update.put("type", type);
+		return update;
+	}
+
+	/**
+	 * Queues an update for the next frame.  Updates are posted to the browser in a single
+	 * acceptUpdates() call, with consecutive text chunks of the same kind merged.
+	 */
+	private void enqueue(ObjectNode update) {
+		if (browser.isDisposed()) {
+			return;
+		}
+		synchronized (pendingUpdates) {
+			if ("clear".equals(update.get("type").asText())) {
+				// nothing queued before a clear would remain visible
+				pendingUpdates.clear();
+			}
+			if (!merge(update)) {
+				pendingUpdates.add(update);
+			}
+			if (flushScheduled) {
+				return;
+			}
+			flushScheduled = true;
+		}
+		Display display = Activator.getDisplay();
+		display.asyncExec(() -> display.timerExec(FRAME_MILLIS, this::flush));
+	}
+
+	private boolean merge(ObjectNode update) {
+		if (pendingUpdates.isEmpty() || !update.has("block")) {
+			return false;
+		}
+		ObjectNode last = pendingUpdates.get(pendingUpdates.size() - 1);
+		if (!last.get("type").equals(update.get("type"))) {
+			return false;
+		}
+		JsonNode lastBlock = last.get("block");
+		JsonNode block = update.get("block");
+		if (!isText(lastBlock) || !isText(block)) {
+			return false;
+		}
+		((ObjectNode)lastBlock).put("text", lastBlock.get("text").asText() + block.get("text").asText());
+		return true;
+	}
+
+	private boolean isText(JsonNode block) {
+		return block instanceof ObjectNode 
+				&& "text".equals(block.path("type").asText())
+				&& block.path("text").isTextual();
+	}
+
+	private void flush() {
+		if (browser.isDisposed() || !loaded) {
+			// pending updates are flushed once the page has loaded
+			return;
+		}
+
+		ArrayNode updates = mapper.createArrayNode();
+		synchronized (pendingUpdates) {
+			updates.addAll(pendingUpdates);
+			pendingUpdates.clear();
+			flushScheduled = false;
+		}
+		if (updates.isEmpty()) {
+			return;
+		}
+
+		try {
+			// JSON is a valid script literal apart from these two line terminators
+			String json = mapper.writeValueAsString(updates)
+					.replace("\u2028", "\\u2028")
+					.replace("\u2029", "\\u2029");
+			String fxn = "acceptUpdates(" + json + ");";
 			Tracer.trace().trace(Tracer.BROWSER, fxn);
-			Activator.getDisplay().syncExec(()-> {
-				Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
-			});
+			Tracer.trace().trace(Tracer.BROWSER, "" + browser.evaluate(fxn));
+		} catch (JsonProcessingException e) {
+			e.printStackTrace();
 		}
 	}
 	
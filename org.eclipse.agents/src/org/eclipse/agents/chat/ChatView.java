@@ -209,7 +209,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 	}
 
 	public void agentDisconnected() {
-		this.activeSessionId = null;
+		subscribe(null);
 		updateEnablement();
 	}
 
@@ -328,13 +328,26 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 		if (activeSessionId == null || !sessionId.equals(activeSessionId)) {
 //			TODO: stopPromptTurn();
 			browser.clearContent();
+
+			SessionController session = AgentController.getSession(sessionId);
+			if (session != null) {
+				session.replay(browser, () -> subscribe(sessionId));
+			}
 		}
 
-		this.activeSessionId = sessionId;
+		subscribe(sessionId);
 		updateEnablement();
 		
 	}
 	
+	/**
+	 * Sets the active session and routes its updates to this view
+	 */
+	private void subscribe(String sessionId) {
+		SessionController.moveChatView(this, activeSessionId, sessionId);
+		this.activeSessionId = sessionId;
+	}
+	
 	public String getActiveSessionId() {
 		return activeSessionId;
 	}
@@ -346,7 +359,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 	@Override
 	public void agentStopped(IAgentService service) {
 		if (getActiveAgent() == service) {
-			this.activeSessionId = null;
+			subscribe(null);
 			updateEnablement();
 		}
 	}
@@ -354,7 +367,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 	@Override
 	public void agentScheduled(IAgentService service) {
 		if (activeAgent == service) {
-			this.activeSessionId = null;
+			subscribe(null);
 			updateEnablement();
 		}
 	}
@@ -362,7 +375,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 	@Override
 	public void agentStarted(IAgentService service) {
 		if (activeAgent == service) {
-			this.activeSessionId = null;
+			subscribe(null);
 			new NewSessionAction(this).run();
 			updateEnablement();
 		}
@@ -371,7 +384,7 @@ public class ChatView extends ViewPart implements IAgentServiceListener, Travers
 	@Override
 	public void agentFailed(IAgentService service) {
 		if (this.activeAgent == service) {
-			this.activeSessionId = null;
+			subscribe(null);
 			updateEnablement();
 		}
 	}
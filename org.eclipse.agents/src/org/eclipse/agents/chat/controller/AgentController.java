@@ -13,9 +13,10 @@
  *******************************************************************************/
 package org.eclipse.agents.chat.controller;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.agents.services.agent.GeminiService;
 import org.eclipse.agents.services.agent.IAgentService;
@@ -57,15 +58,59 @@ public class AgentController {
 
 	private static AgentController instance;
 	
-	private static Map<String, SessionController> sessions = new HashMap<String, SessionController>();
+	private static final Map<String, SessionController> sessions = new ConcurrentHashMap<String, SessionController>();
 	
 	private ListenerList<IAgentServiceListener> agentListeners;
 	private ListenerList<ISessionListener> sesionListeners;
+	
+	// session scoped messages are routed straight to the listeners of their session
+	private static final ISessionListener[] NO_LISTENERS = new ISessionListener[0];
+	private Map<String, ISessionListener[]> sessionRoutes = new ConcurrentHashMap<String, ISessionListener[]>();
 
 	static {
 		instance = new AgentController();
 	}
 	
+	// per type handlers, so each message is classified once rather than for every listener
+	private static final MessageDispatcher<ISessionListener, ClientRequest> clientRequestHandlers =
+			new MessageDispatcher<ISessionListener, ClientRequest>(ClientRequest.class)
+				.on(InitializeRequest.class, ISessionListener::accept)
+				.on(NewSessionRequest.class, ISessionListener::accept)
+				.on(SetSessionModeRequest.class, ISessionListener::accept)
+				.on(PromptRequest.class, ISessionListener::accept);
+
+	private static final MessageDispatcher<ISessionListener, ClientResponse> clientResponseHandlers =
+			new MessageDispatcher<ISessionListener, ClientResponse>(ClientResponse.class)
+				.on(WriteTextFileResponse.class, ISessionListener::accept)
+				.on(ReadTextFileResponse.class, ISessionListener::accept)
+				.on(RequestPermissionResponse.class, ISessionListener::accept)
+				.on(CreateTerminalResponse.class, ISessionListener::accept)
+				.on(TerminalOutputResponse.class, ISessionListener::accept)
+				.on(ReleaseTerminalResponse.class, ISessionListener::accept)
+				.on(WaitForTerminalExitResponse.class, ISessionListener::accept)
+				.on(KillTerminalCommandResponse.class, ISessionListener::accept);
+
+	private static final MessageDispatcher<ISessionListener, ClientNotification> clientNotificationHandlers =
+			new MessageDispatcher<ISessionListener, ClientNotification>(ClientNotification.class)
+				.on(CancelNotification.class, ISessionListener::accept);
+
+	private static final MessageDispatcher<ISessionListener, AgentRequest> agentRequestHandlers =
+			new MessageDispatcher<ISessionListener, AgentRequest>(AgentRequest.class)
+				.on(ReadTextFileRequest.class, ISessionListener::accept)
+				.on(WriteTextFileRequest.class, ISessionListener::accept)
+				.on(CreateTerminalRequest.class, ISessionListener::accept)
+				.on(TerminalOutputRequest.class, ISessionListener::accept)
+				.on(ReleaseTerminalRequest.class, ISessionListener::accept)
+				.on(WaitForTerminalExitRequest.class, ISessionListener::accept)
+				.on(KillTerminalCommandRequest.class, ISessionListener::accept);
+
+	private static final MessageDispatcher<ISessionListener, AgentResponse> agentResponseHandlers =
+			new MessageDispatcher<ISessionListener, AgentResponse>(AgentResponse.class)
+				.on(InitializeResponse.class, ISessionListener::accept)
+				.on(NewSessionResponse.class, ISessionListener::accept)
+				.on(SetSessionModeResponse.class, ISessionListener::accept)
+				.on(PromptResponse.class, ISessionListener::accept);
+	
 	IAgentService[] agentServices;
 	private AgentController() {
 		agentServices = new IAgentService[] { 
@@ -98,10 +143,36 @@ public class AgentController {
 	
 	public void addSessionListener(ISessionListener listener) {
 		sesionListeners.add(listener);
+		if (listener.getSessionId() != null) {
+			sessionRoutes.compute(listener.getSessionId(), (id, listeners) -> {
+				if (listeners == null) {
+					return new ISessionListener[] { listener };
+				}
+				ISessionListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+				result[listeners.length] = listener;
+				return result;
+			});
+		}
 	}
 	
 	public void removeSessionListener(ISessionListener listener) {
 		sesionListeners.remove(listener);
+		if (listener.getSessionId() != null) {
+			sessionRoutes.computeIfPresent(listener.getSessionId(), (id, listeners) -> {
+				ISessionListener[] result = Arrays.stream(listeners)
+						.filter(l -> l != listener)
+						.toArray(ISessionListener[]::new);
+				return result.length == 0 ? null : result;
+			});
+		}
+	}
+	
+	/**
+	 * @return the listeners of a session, the returned array must not be modified
+	 */
+	private ISessionListener[] getSessionListeners(String sessionId) {
+		ISessionListener[] listeners = sessionId == null ? null : sessionRoutes.get(sessionId);
+		return listeners == null ? NO_LISTENERS : listeners;
 	}
 	
 	public void addAgentListener(IAgentServiceListener listener) {
@@ -113,101 +184,39 @@ public class AgentController {
 	}
 	
 	public void clientRequests(ClientRequest req) {
-		for (ISessionListener listener: sesionListeners) {
-			if (req instanceof InitializeRequest) {
-				listener.accept((InitializeRequest)req);	
-//			} else if (req instanceof AuthenticateRequest) {
-//				listener.accept((AuthenticateRequest)req);
-			} else if (req instanceof NewSessionRequest) {
-				listener.accept((NewSessionRequest)req);
-//			} else if (req instanceof LoadSessionRequest) {
-//				listener.accept((LoadSessionRequest)req);
-			} else if (req instanceof SetSessionModeRequest) {
-				listener.accept((SetSessionModeRequest)req);
-			} else if (req instanceof PromptRequest) {
-				listener.accept((PromptRequest)req);
-			}
-		}
+		clientRequestHandlers.dispatch(req, sesionListeners);
 	}
 	
 	public void clientResponds(ClientResponse resp) {
-		for (ISessionListener listener: sesionListeners) {
-			if (resp instanceof WriteTextFileResponse) {
-				listener.accept((WriteTextFileResponse)resp);
-			} else if (resp instanceof ReadTextFileResponse) {
-				listener.accept((ReadTextFileResponse)resp);
-			} else if (resp instanceof RequestPermissionResponse) {
-				listener.accept((RequestPermissionResponse)resp);
-			} else if (resp instanceof CreateTerminalResponse) {
-				listener.accept((CreateTerminalResponse)resp);
-			} else if (resp instanceof TerminalOutputResponse) {
-				listener.accept((TerminalOutputResponse)resp);
-			} else if (resp instanceof ReleaseTerminalResponse) {
-				listener.accept((ReleaseTerminalResponse)resp);
-			} else if (resp instanceof WaitForTerminalExitResponse) {
-				listener.accept((WaitForTerminalExitResponse)resp);
-			} else if (resp instanceof KillTerminalCommandResponse) {
-				listener.accept((KillTerminalCommandResponse)resp);
-			}							
-		}
+		clientResponseHandlers.dispatch(resp, sesionListeners);
 	}
 	
 	public void clientNotifies(ClientNotification notification) {
-		for (ISessionListener listener: sesionListeners) {
-			if (notification instanceof CancelNotification) {
-				listener.accept((CancelNotification)notification);
-			}
-		}
+		clientNotificationHandlers.dispatch(notification, sesionListeners);
 	}
 	
 	public void agentRequests(AgentRequest req) {
-		for (ISessionListener listener : sesionListeners) {
-			if (req instanceof ReadTextFileRequest) {
-				listener.accept((ReadTextFileRequest)req);
-			} else if (req instanceof WriteTextFileRequest) {
-				listener.accept((WriteTextFileRequest)req);
-			} else if (req instanceof CreateTerminalRequest) {
-				listener.accept((CreateTerminalRequest)req);
-			} else if (req instanceof TerminalOutputRequest) {
-				listener.accept((TerminalOutputRequest)req);
-			} else if (req instanceof ReleaseTerminalRequest) {
-				listener.accept((ReleaseTerminalRequest)req);
-			} else if (req instanceof WaitForTerminalExitRequest) {
-				listener.accept((WaitForTerminalExitRequest)req);
-			} else if (req instanceof KillTerminalCommandRequest) {
-				listener.accept((KillTerminalCommandRequest)req);
-			}
-		}
+		agentRequestHandlers.dispatch(req, sesionListeners);
 	}
 	
 	public void agentResponds(AgentResponse resp) {
-		for (ISessionListener listener: sesionListeners) {
-			if (resp instanceof InitializeResponse) {
-				listener.accept((InitializeResponse)resp);
-//			if (resp instanceof AuthenticateResponse) {
-//				listener.accept((AuthenticateResponse)resp);
-			} else if (resp instanceof NewSessionResponse) {
-				listener.accept((NewSessionResponse)resp);
-//			} else if (resp instanceof LoadSessionResponse) {
-//				listener.accept((LoadSessionResponse)resp);
-			} else if (resp instanceof SetSessionModeResponse) {
-				listener.accept((SetSessionModeResponse)resp);
-			} else if (resp instanceof PromptResponse) {
-				listener.accept((PromptResponse)resp);
-			}
-		}
+		agentResponseHandlers.dispatch(resp, sesionListeners);
 	}
 	
 	public void agentNotifies(AgentNotification notification) {
-		for (ISessionListener listener: sesionListeners) {
-			if (notification instanceof SessionNotification) {
-				listener.accept((SessionNotification)notification);
-			}
+		if (notification instanceof SessionNotification) {
+			agentNotifies((SessionNotification)notification);
+		}
+	}
+	
+	public void agentNotifies(SessionNotification notification) {
+		for (ISessionListener listener: getSessionListeners(notification.sessionId())) {
+			listener.accept(notification);
 		}
 	}
 	
 	public void acceptRequestsPermission(RequestPermissionRequest permissionRequest, CompletableFuture<RequestPermissionResponse> pendingResponse) {
-		for (ISessionListener listener: sesionListeners) {
+		for (ISessionListener listener: getSessionListeners(permissionRequest.sessionId())) {
 			listener.accept(permissionRequest, pendingResponse);
 		}
 	}
@@ -222,6 +231,13 @@ public class AgentController {
 		for (IAgentServiceListener listener: agentListeners) {
 			listener.agentStopped(service);
 		}
+
+		// sessions end with the agent process that hosts them
+		for (SessionController session: sessions.values()) {
+			if (session.getAgent() == service && sessions.remove(session.getSessionId(), session)) {
+				session.dispose();
+			}
+		}
 	}
 	
 	public void agentFailed(IAgentService service) {
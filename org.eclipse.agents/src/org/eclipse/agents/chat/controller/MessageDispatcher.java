@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Table of handlers for the concrete types of a sealed message hierarchy, built from its
+ * permitted subclasses.  A message is classified with a single lookup, and the resolved
+ * handler is then applied to every target, replacing instanceof ladders inside listener loops.
+ *
+ * @param <L> the target a handler is applied to, such as a listener
+ * @param <T> the root of the sealed hierarchy
+ */
+class MessageDispatcher<L, T> {
+
+	private final BiConsumer<L, T> ignore = (target, message) -> {};
+	private final Map<Class<?>, BiConsumer<L, T>> handlers = new HashMap<Class<?>, BiConsumer<L, T>>();
+
+	MessageDispatcher(Class<T> root) {
+		addTypes(root);
+	}
+
+	private void addTypes(Class<?> type) {
+		if (type.isSealed()) {
+			for (Class<?> subclass: type.getPermittedSubclasses()) {
+				addTypes(subclass);
+			}
+		} else {
+			handlers.put(type, ignore);
+		}
+	}
+
+	/**
+	 * Registers the handler of a concrete type, types without a handler are ignored
+	 */
+	@SuppressWarnings("unchecked")
+	<S extends T> MessageDispatcher<L, T> on(Class<S> type, BiConsumer<L, S> handler) {
+		if (!handlers.containsKey(type)) {
+			throw new IllegalArgumentException(type.getName() + " is not a concrete type of the hierarchy"); //$NON-NLS-1$
+		}
+		handlers.put(type, (BiConsumer<L, T>)handler);
+		return this;
+	}
+
+	/**
+	 * @return the handler for the message's type
+	 */
+	BiConsumer<L, T> get(T message) {
+		BiConsumer<L, T> handler = handlers.get(message.getClass());
+		return handler == null ? ignore : handler;
+	}
+
+	/**
+	 * Applies the message's handler to each target
+	 */
+	void dispatch(T message, Iterable<? extends L> targets) {
+		BiConsumer<L, T> handler = get(message);
+		if (handler != ignore) {
+			for (L target: targets) {
+				handler.accept(target, message);
+			}
+		}
+	}
+}
@@ -13,9 +13,10 @@
  *******************************************************************************/
 package org.eclipse.agents.chat.controller;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.agents.Tracer;
 import org.eclipse.agents.chat.ChatBrowser;
@@ -55,6 +56,7 @@ import org.eclipse.agents.services.protocol.AcpSchema.SessionNotification;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionPlan;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCall;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCallUpdate;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionUpdate;
 import org.eclipse.agents.services.protocol.AcpSchema.SessionUserMessageChunk;
 import org.eclipse.agents.services.protocol.AcpSchema.SetSessionModeRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.SetSessionModeResponse;
@@ -66,7 +68,6 @@ import org.eclipse.agents.services.protocol.AcpSchema.WaitForTerminalExitRequest
 import org.eclipse.agents.services.protocol.AcpSchema.WaitForTerminalExitResponse;
 import org.eclipse.agents.services.protocol.AcpSchema.WriteTextFileRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.WriteTextFileResponse;
-import org.eclipse.core.runtime.ListenerList;
 
 public class SessionController implements ISessionListener, IWorkspaceChangeListener {
 
@@ -81,11 +82,64 @@ public class SessionController implements ISessionListener, IWorkspaceChangeList
 	
 	// State
 //	int promptId = 0;
-	private List<Object> session = new ArrayList<Object>();
-	private static ListenerList<ChatView> chatViews = new ListenerList<ChatView>();
+	private SessionLog log;
+	
+	// views showing each session, replaced rather than modified so they can be iterated without locking
+	private static final ChatView[] NO_VIEWS = new ChatView[0];
+	private static Map<String, ChatView[]> chatViews = new ConcurrentHashMap<String, ChatView[]>();
 	
 	enum MessageType { session_prompt, user_message_chunk, agent_thought_chunk, agent_message_chunk, resource_link };
 
+	// renders each type of session update into the views showing the session
+	private static final MessageDispatcher<ChatView[], SessionUpdate> updateHandlers =
+			new MessageDispatcher<ChatView[], SessionUpdate>(SessionUpdate.class)
+				.on(SessionUserMessageChunk.class, (views, chunk) -> {
+					for (ChatView view: views) {
+						view.getBrowser().acceptSessionUserMessageChunk(chunk.content());
+					}
+				})
+				.on(SessionAgentThoughtChunk.class, (views, chunk) -> {
+					for (ChatView view: views) {
+						view.getBrowser().acceptSessionAgentThoughtChunk(chunk.content());
+					}
+				})
+				.on(SessionAgentMessageChunk.class, (views, chunk) -> {
+					for (ChatView view: views) {
+						view.getBrowser().acceptSessionAgentMessageChunk(chunk.content());
+					}
+				})
+				.on(SessionToolCall.class, (views, toolCall) -> {
+					for (ChatView view: views) {
+						view.getBrowser().acceptSessionToolCall(
+								toolCall.toolCallId(), 
+								toolCall.title(), 
+								toolCall.kind(), 
+								toolCall.status());
+					}
+				})
+				.on(SessionToolCallUpdate.class, (views, toolCall) -> {
+					for (ChatView view: views) {
+						view.getBrowser().acceptSessionToolCallUpdate(
+								toolCall.toolCallId(), 
+								toolCall.status(),
+								toolCall.content());
+					}
+				})
+				.on(SessionPlan.class, (views, plan) -> {
+					PlanEntry[] entries = plan.entries();
+					for (int i = 1; i <= entries.length; i++) {
+						if (entries[i].status() == PlanEntryStatus.in_progress) {
+							Tracer.trace().trace(Tracer.ACP, "Step " + i + " of " + (entries.length + 1) + ": " + entries[i].content());
+						}
+					}
+				})
+				.on(SessionAvailableCommandsUpdate.class, (views, update) -> {
+					Tracer.trace().trace(Tracer.ACP, SessionAvailableCommandsUpdate.class.getCanonicalName());
+				})
+				.on(SessionModeUpdate.class, (views, update) -> {
+					Tracer.trace().trace(Tracer.ACP, SessionModeUpdate.class.getCanonicalName());
+				});
+
 	
 	public SessionController(IAgentService agent, String sessionId, String cwd, 
 			McpServer[] mcpServers, SessionModeState modes, SessionModelState models) {
@@ -97,6 +151,7 @@ public class SessionController implements ISessionListener, IWorkspaceChangeList
 		this.modes = modes;
 		this.models = models;
 		
+		log = new SessionLog(sessionId);
 		AgentController.instance().addSessionListener(this);
 		workspaceController = new WorkspaceController(sessionId);
 		workspaceController.addListener(this);
@@ -106,43 +161,113 @@ public class SessionController implements ISessionListener, IWorkspaceChangeList
 	public String getSessionId() {
 		return sessionId;
 	}
+
+	/**
+	 * Ends the session, it no longer receives updates and its transcript is released
+	 */
+	public void dispose() {
+		AgentController.instance().removeSessionListener(this);
+		workspaceController.removeListener(this);
+		workspaceController.clearVariants();
+		synchronized (log) {
+			log.dispose();
+		}
+	}
 	
 	public WorkspaceController getWorkspaceController() {
 		return workspaceController;
 	}
 	
 	public static void addChatView(ChatView view) {
-		chatViews.add(view);
+		moveChatView(view, null, view.getActiveSessionId());
 	}
 	
+	/**
+	 * @return the views showing a session, the returned array must not be modified
+	 */
 	public static ChatView[] getChatViews(String sessionId) {
-		 return chatViews.stream().filter(cv -> {
-			 return sessionId.equals(cv.getActiveSessionId());
-		 }).toArray(ChatView[]::new);
+		ChatView[] views = sessionId == null ? null : chatViews.get(sessionId);
+		return views == null ? NO_VIEWS : views;
 	}
 	
 	public static void removeChatView(ChatView view) {
-		chatViews.remove(view);
+		moveChatView(view, view.getActiveSessionId(), null);
+	}
+	
+	/**
+	 * Routes a view's session updates from one session to another, either may be null
+	 */
+	public static void moveChatView(ChatView view, String fromSessionId, String toSessionId) {
+		if (fromSessionId != null && !fromSessionId.equals(toSessionId)) {
+			chatViews.computeIfPresent(fromSessionId, (id, views) -> {
+				ChatView[] result = Arrays.stream(views).filter(v -> v != view).toArray(ChatView[]::new);
+				return result.length == 0 ? null : result;
+			});
+		}
+		if (toSessionId != null && !toSessionId.equals(fromSessionId)) {
+			chatViews.compute(toSessionId, (id, views) -> {
+				if (views == null) {
+					return new ChatView[] { view };
+				}
+				if (Arrays.asList(views).contains(view)) {
+					return views;
+				}
+				ChatView[] result = Arrays.copyOf(views, views.length + 1);
+				result[views.length] = view;
+				return result;
+			});
+		}
 	}
 	
 	public IAgentService getAgent() {
 		return agent;
 	}
+	
+	/**
+	 * Renders the session's transcript into a browser.  attach is run before any update of the
+	 * session is delivered again, so an update is either replayed or delivered, never both.
+	 */
+	public void replay(ChatBrowser browser, Runnable attach) {
+		synchronized (log) {
+			attach.run();
+			log.replay(browser);
+		}
+	}
 		
 	public void prompt(ContentBlock[] contentBlocks) {
 		PromptRequest request = new PromptRequest(null, contentBlocks, sessionId);
 		AgentController.instance().clientRequests(request);
-		agent.getAgent().prompt(request).whenComplete((result, ex) -> {
+		// completed behind the turn's queued session updates, so the stop message comes last
+		agent.getAgent().prompt(request).whenCompleteAsync((result, ex) -> {
 	        if (ex != null) {
 	        	Tracer.trace().trace(Tracer.CHAT, "prompt error", ex); //$NON-NLS-1$
 	            ex.printStackTrace();
 	            
 	            // Gemini CLI: cancel before first thought throws JSONRPC error
+	            promptTurnEnded(StopReason.refusal);
 	            AgentController.instance().agentResponds(new PromptResponse(null, StopReason.refusal));
 	        } else {
+	        	promptTurnEnded(result.stopReason());
 	        	AgentController.instance().agentResponds(result);
 	        }
-	    });
+	    }, agent.getEventExecutor());
+	}
+	
+	/**
+	 * Ends the turn in this session's log and views, a PromptResponse does not name its session
+	 * so it is not routed to them
+	 */
+	private void promptTurnEnded(StopReason stopReason) {
+		TextBlock message = getStopMessage(stopReason);
+		synchronized (log) {
+			log.addMessage(message);
+			for (ChatView view: getChatViews(sessionId)) {
+				if (message != null) {
+					view.getBrowser().acceptSessionAgentMessageChunk(message);
+				}
+				view.prompTurnEnded();
+			}
+		}
 	}
 	
 	public void stopPromptTurn(String sessionId) {
@@ -161,54 +286,9 @@ public class SessionController implements ISessionListener, IWorkspaceChangeList
 	//------------------------
 	@Override
 	public void accept(SessionNotification notification) {
-		
-		if (!sessionId.equals(notification.sessionId())) {
-			return;
-		}
-
-		session.add(notification);
-		
-		for (ChatView view: getChatViews(notification.sessionId())) {
-			ChatBrowser browser = view.getBrowser();
-
-			if (notification.update() instanceof SessionUserMessageChunk) {
-				browser.acceptSessionUserMessageChunk(
-						((SessionUserMessageChunk)notification.update()).content());
-			} else if (notification.update() instanceof SessionAgentThoughtChunk) {
-				browser.acceptSessionAgentThoughtChunk(
-						((SessionAgentThoughtChunk)notification.update()).content());
-			} else if (notification.update() instanceof SessionAgentMessageChunk) {
-				browser.acceptSessionAgentMessageChunk(
-						((SessionAgentMessageChunk)notification.update()).content());
-			} else if (notification.update() instanceof SessionToolCall) {
-				SessionToolCall toolCall = (SessionToolCall)notification.update();
-				browser.acceptSessionToolCall(
-						toolCall.toolCallId(), 
-						toolCall.title(), 
-						toolCall.kind(), 
-						toolCall.status());
-	
-			} else if (notification.update() instanceof SessionToolCallUpdate) {
-				SessionToolCallUpdate toolCall = (SessionToolCallUpdate)notification.update();
-				browser.acceptSessionToolCallUpdate(
-						toolCall.toolCallId(), 
-						toolCall.status(),
-						toolCall.content());
-			}
-			else if (notification.update() instanceof SessionPlan) {
-				PlanEntry[] entries = ((SessionPlan)notification.update()).entries();
-				for (int i = 1; i <= entries.length; i++) {
-					if (entries[i].status() == PlanEntryStatus.in_progress) {
-						Tracer.trace().trace(Tracer.ACP, "Step " + i + " of " + (entries.length + 1) + ": " + entries[i].content());
-					}
-				}
-			}
-			else if (notification.update() instanceof SessionAvailableCommandsUpdate) {
-				Tracer.trace().trace(Tracer.ACP, SessionAvailableCommandsUpdate.class.getCanonicalName());
-			}
-			else if (notification.update() instanceof SessionModeUpdate ) {
-				Tracer.trace().trace(Tracer.ACP, SessionModeUpdate.class.getCanonicalName());
-			}
+		synchronized (log) {
+			log.add(notification.update());
+			updateHandlers.get(notification.update()).accept(getChatViews(sessionId), notification.update());
 		}
 	}
 
@@ -303,9 +383,13 @@ public class SessionController implements ISessionListener, IWorkspaceChangeList
 
 	@Override
 	public void accept(PromptResponse response) {
+		// the responses to the prompts of every session arrive here, see promptTurnEnded
+	}
+
+	private TextBlock getStopMessage(StopReason stopReason) {
 		TextBlock error = null;
 		
-		switch (((PromptResponse)response).stopReason()) {
+		switch (stopReason) {
 		case cancelled:
 			error = new TextBlock (null, null, "\nThe exchange has been canceled", "text");
 			break;
@@ -325,15 +409,7 @@ public class SessionController implements ISessionListener, IWorkspaceChangeList
 			break;
 		
 		}
-		
-		for (ChatView view: getChatViews(sessionId)) {
-			if (error != null) {
-				view.getBrowser().acceptSessionAgentMessageChunk(error);
-			}
-			
-			view.prompTurnEnded();
-		}
-		
+		return error;
 	}
 
 	//------------------------
@@ -379,11 +455,19 @@ public class SessionController implements ISessionListener, IWorkspaceChangeList
 
 	@Override
 	public void accept(PromptRequest request) {
+		if (!sessionId.equals(request.sessionId())) {
+			return;
+		}
+		
 		workspaceController.clearVariants();
 		
-		for (ChatView view: getChatViews(sessionId)) {
-			view.getBrowser().acceptPromptRequest(request);
-			view.prompTurnStarted();
+		synchronized (log) {
+			log.addPrompt(request.prompt());
+			
+			for (ChatView view: getChatViews(sessionId)) {
+				view.getBrowser().acceptPromptRequest(request);
+				view.prompTurnStarted();
+			}
 		}
 		
 	}
@@ -0,0 +1,494 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.chat.ChatBrowser;
+import org.eclipse.agents.services.protocol.AcpSchema.ContentBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.PromptRequest;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentMessageChunk;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionAgentThoughtChunk;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCall;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionToolCallUpdate;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionUpdate;
+import org.eclipse.agents.services.protocol.AcpSchema.SessionUserMessageChunk;
+import org.eclipse.agents.services.protocol.AcpSchema.TextBlock;
+import org.eclipse.agents.services.protocol.AcpSchema.ToolCallStatus;
+import org.eclipse.agents.services.protocol.AcpSchema.ToolKind;
+import org.eclipse.agents.services.protocol.AcpSchemaTypeAdapters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Transcript of a session, kept so it can be replayed into a {@link ChatBrowser}.
+ *
+ * Events are stored as fixed size int records in segments, with their text in the segment's
+ * byte arena and tool call ids interned.  Only the most recent segments stay on the heap,
+ * older ones are written to a memory mapped file in the plugin's state location.  The file is
+ * capped at {@link #MAX_SPILL_BYTES}, beyond which it wraps around and the oldest segments are
+ * no longer replayed.
+ */
+public class SessionLog {
+
+	// record kinds
+	private static final int PROMPT = 0;
+	private static final int USER_CHUNK = 1;
+	private static final int THOUGHT_CHUNK = 2;
+	private static final int MESSAGE_CHUNK = 3;
+	private static final int TOOL_CALL = 4;
+	private static final int TOOL_CALL_UPDATE = 5;
+
+	// record layout
+	private static final int KIND = 0;
+	private static final int ID = 1;
+	private static final int FLAGS = 2;
+	private static final int OFFSET = 3;
+	private static final int LENGTH = 4;
+	private static final int RECORD_SIZE = 5;
+
+	// set when the text is a serialized content block rather than the text of a text block,
+	// the low bytes hold the tool kind and status ordinals plus one
+	private static final int JSON = 1 << 16;
+
+	private static final int SEGMENT_RECORDS = 4096;
+	private static final int SEGMENT_BYTES = 1024 * 1024;
+	private static final int HOT_SEGMENTS = 2;
+	private static final long MAX_SPILL_BYTES = 256L * 1024 * 1024;
+
+	private static final MessageDispatcher<SessionLog, SessionUpdate> updateHandlers =
+			new MessageDispatcher<SessionLog, SessionUpdate>(SessionUpdate.class)
+				.on(SessionUserMessageChunk.class, (log, chunk) -> log.addBlock(USER_CHUNK, chunk.content()))
+				.on(SessionAgentThoughtChunk.class, (log, chunk) -> log.addBlock(THOUGHT_CHUNK, chunk.content()))
+				.on(SessionAgentMessageChunk.class, (log, chunk) -> log.addBlock(MESSAGE_CHUNK, chunk.content()))
+				.on(SessionToolCall.class, (log, toolCall) -> log.add(TOOL_CALL, log.intern(toolCall.toolCallId()),
+						flags(toolCall.kind(), toolCall.status()), toolCall.title()))
+				.on(SessionToolCallUpdate.class, (log, toolCall) -> log.add(TOOL_CALL_UPDATE, log.intern(toolCall.toolCallId()),
+						flags(null, toolCall.status()), null));
+
+	private static final Gson gson;
+
+	static {
+		GsonBuilder builder = new GsonBuilder();
+		new AcpSchemaTypeAdapters().registerTypeAdapters(builder);
+		gson = builder.create();
+	}
+
+	private final String sessionId;
+
+	private final List<Segment> segments = new ArrayList<Segment>();
+	private Segment current;
+	private long recordCount = 0;
+
+	// global record index of the first record of each turn
+	private long[] turns = new long[16];
+	private int turnCount = 0;
+
+	private final Map<String, Integer> ids = new HashMap<String, Integer>();
+	private final List<String> idValues = new ArrayList<String>();
+
+	private File spillFile;
+	private FileChannel spill;
+	private long spillSize = 0;
+	private boolean disposed = false;
+
+	public SessionLog(String sessionId) {
+		this.sessionId = sessionId;
+		current = new Segment(0);
+		segments.add(current);
+	}
+
+	/**
+	 * Starts a new turn with the blocks of its prompt
+	 */
+	public synchronized void addPrompt(ContentBlock[] prompt) {
+		if (disposed) {
+			return;
+		}
+		if (turnCount == turns.length) {
+			turns = Arrays.copyOf(turns, turnCount * 2);
+		}
+		turns[turnCount++] = recordCount;
+
+		for (ContentBlock block: prompt) {
+			addBlock(PROMPT, block);
+		}
+	}
+
+	public synchronized void add(SessionUpdate update) {
+		if (turnCount == 0) {
+			return;
+		}
+
+		updateHandlers.get(update).accept(this, update);
+	}
+
+	/**
+	 * Adds a message from the client, such as why a turn stopped, to the current turn
+	 */
+	public synchronized void addMessage(ContentBlock block) {
+		if (turnCount > 0) {
+			addBlock(MESSAGE_CHUNK, block);
+		}
+	}
+
+	public synchronized int getTurnCount() {
+		return turnCount;
+	}
+
+	/**
+	 * Renders every turn into the browser
+	 */
+	public synchronized void replay(ChatBrowser browser) {
+		for (int turn = 0; turn < turnCount; turn++) {
+			replay(turn, browser);
+		}
+	}
+
+	/**
+	 * Renders a single turn into the browser, turns are numbered from 0
+	 */
+	public synchronized void replay(int turn, ChatBrowser browser) {
+		long end = turn + 1 < turnCount ? turns[turn + 1] : recordCount;
+		List<ContentBlock> prompt = new ArrayList<ContentBlock>();
+
+		int index = findSegment(turns[turn]);
+		for (long record = turns[turn]; record < end; record++) {
+			Segment segment = segments.get(index);
+			if (record - segment.first == segment.count) {
+				segment = segments.get(++index);
+			}
+			if (segment.dropped) {
+				// skip the rest of the dropped records at once
+				record = Math.min(segment.first + segment.count, end) - 1;
+				continue;
+			}
+
+			int local = (int)(record - segment.first);
+			int kind = segment.get(local, KIND);
+			if (kind != PROMPT && !prompt.isEmpty()) {
+				browser.acceptPromptRequest(new PromptRequest(null, prompt.toArray(ContentBlock[]::new), sessionId));
+				prompt.clear();
+			}
+
+			int flags = segment.get(local, FLAGS);
+			switch (kind) {
+			case PROMPT:
+				prompt.add(getBlock(segment, local, flags));
+				break;
+			case USER_CHUNK:
+				browser.acceptSessionUserMessageChunk(getBlock(segment, local, flags));
+				break;
+			case THOUGHT_CHUNK:
+				browser.acceptSessionAgentThoughtChunk(getBlock(segment, local, flags));
+				break;
+			case MESSAGE_CHUNK:
+				browser.acceptSessionAgentMessageChunk(getBlock(segment, local, flags));
+				break;
+			case TOOL_CALL:
+				browser.acceptSessionToolCall(idValues.get(segment.get(local, ID)), segment.getText(local),
+						getKind(flags), getStatus(flags));
+				break;
+			case TOOL_CALL_UPDATE:
+				browser.acceptSessionToolCallUpdate(idValues.get(segment.get(local, ID)), getStatus(flags), null);
+				break;
+			}
+		}
+
+		if (!prompt.isEmpty()) {
+			browser.acceptPromptRequest(new PromptRequest(null, prompt.toArray(ContentBlock[]::new), sessionId));
+		}
+	}
+
+	/**
+	 * Releases the spill file and its mappings, the log is empty afterwards
+	 */
+	public synchronized void dispose() {
+		disposed = true;
+		turnCount = 0;
+		recordCount = 0;
+		// the mappings are released once nothing references them
+		for (Segment segment: segments) {
+			segment.mapped = null;
+			segment.records = null;
+			segment.arena = null;
+		}
+		segments.clear();
+		current = new Segment(0);
+		segments.add(current);
+		ids.clear();
+		idValues.clear();
+
+		if (spill != null) {
+			try {
+				spill.close();
+			} catch (IOException e) {
+				Tracer.trace().trace(Tracer.CHAT, "Failed to close session log", e); //$NON-NLS-1$
+			}
+			if (!spillFile.delete() && spillFile.exists()) {
+				// some platforms refuse to delete a file that is still mapped, try again when the workbench exits
+				Tracer.trace().trace(Tracer.CHAT, "Failed to delete session log " + spillFile); //$NON-NLS-1$
+				spillFile.deleteOnExit();
+			}
+			spill = null;
+			spillSize = 0;
+		}
+	}
+
+	private void addBlock(int kind, ContentBlock block) {
+		if (block instanceof TextBlock && ((TextBlock)block).meta() == null && ((TextBlock)block).annotations() == null) {
+			add(kind, -1, 0, ((TextBlock)block).text());
+		} else if (block != null) {
+			add(kind, -1, JSON, gson.toJson(block, ContentBlock.class));
+		}
+	}
+
+	private void add(int kind, int id, int flags, String text) {
+		byte[] bytes = text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+		if (!current.fits(bytes == null ? 0 : bytes.length)) {
+			current = new Segment(recordCount);
+			segments.add(current);
+			evict();
+			mergeDropped();
+		}
+		current.add(kind, id, flags, bytes);
+		recordCount++;
+	}
+
+	private ContentBlock getBlock(Segment segment, int local, int flags) {
+		String text = segment.getText(local);
+		if ((flags & JSON) != 0) {
+			return gson.fromJson(text, ContentBlock.class);
+		}
+		return new TextBlock(null, null, text, "text");
+	}
+
+	private int intern(String id) {
+		if (id == null) {
+			id = "";
+		}
+		Integer index = ids.get(id);
+		if (index == null) {
+			index = idValues.size();
+			ids.put(id, index);
+			idValues.add(id);
+		}
+		return index;
+	}
+
+	private static int flags(ToolKind kind, ToolCallStatus status) {
+		int flags = 0;
+		if (kind != null) {
+			flags |= kind.ordinal() + 1;
+		}
+		if (status != null) {
+			flags |= (status.ordinal() + 1) << 8;
+		}
+		return flags;
+	}
+
+	private static ToolKind getKind(int flags) {
+		int ordinal = (flags & 0xff) - 1;
+		return ordinal < 0 ? null : ToolKind.values()[ordinal];
+	}
+
+	private static ToolCallStatus getStatus(int flags) {
+		int ordinal = ((flags >> 8) & 0xff) - 1;
+		return ordinal < 0 ? null : ToolCallStatus.values()[ordinal];
+	}
+
+	private int findSegment(long record) {
+		int low = 0;
+		int high = segments.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (segments.get(middle).first <= record) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Moves segments beyond the most recent {@link #HOT_SEGMENTS} off the heap
+	 */
+	private void evict() {
+		int cold = segments.size() - 1 - HOT_SEGMENTS;
+		if (cold < 0) {
+			return;
+		}
+		Segment segment = segments.get(cold);
+		if (segment.records == null) {
+			return;
+		}
+
+		int recordBytes = segment.count * RECORD_SIZE * Integer.BYTES;
+		long size = recordBytes + segment.arenaSize;
+		if (size > MAX_SPILL_BYTES) {
+			// larger than the whole spill file, the segment's events are no longer replayed
+			segment.dropped = true;
+			segment.records = null;
+			segment.arena = null;
+			return;
+		}
+
+		try {
+			if (spillSize + size > MAX_SPILL_BYTES) {
+				// wrap around, overwriting the oldest spilled segments
+				spillSize = 0;
+			}
+			release(spillSize, spillSize + size);
+
+			MappedByteBuffer buffer = getSpill().map(MapMode.READ_WRITE, spillSize, size);
+			buffer.asIntBuffer().put(segment.records, 0, segment.count * RECORD_SIZE);
+			buffer.position(recordBytes);
+			buffer.put(segment.arena, 0, segment.arenaSize);
+
+			segment.mapped = buffer;
+			segment.spillOffset = spillSize;
+			segment.arenaOffset = recordBytes;
+			spillSize += size;
+		} catch (IOException e) {
+			// keep the heap bounded, the segment's events are no longer replayed
+			Tracer.trace().trace(Tracer.CHAT, "Failed to spill session log", e); //$NON-NLS-1$
+			segment.dropped = true;
+		}
+		segment.records = null;
+		segment.arena = null;
+	}
+
+	/**
+	 * Drops the spilled segments stored in this range of the spill file
+	 */
+	private void release(long start, long end) {
+		for (Segment segment: segments) {
+			if (segment.mapped != null && segment.spillOffset < end && segment.spillOffset + segment.mapped.capacity() > start) {
+				segment.mapped = null;
+				segment.dropped = true;
+			}
+		}
+	}
+
+	/**
+	 * Merges adjacent dropped segments, so the index only grows with the segments that can be replayed
+	 */
+	private void mergeDropped() {
+		Segment previous = null;
+		for (Iterator<Segment> iterator = segments.iterator(); iterator.hasNext();) {
+			Segment segment = iterator.next();
+			if (previous != null && previous.dropped && segment.dropped) {
+				previous.count += segment.count;
+				iterator.remove();
+			} else {
+				previous = segment;
+			}
+		}
+	}
+
+	private FileChannel getSpill() throws IOException {
+		if (spill == null) {
+			File directory = Activator.getDefault().getScratchDirectory("sessions"); //$NON-NLS-1$
+			spillFile = new File(directory, sessionId.replaceAll("[^\\w.-]", "_") + ".log"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			spill = FileChannel.open(spillFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		return spill;
+	}
+
+	private static class Segment {
+
+		// global index of the segment's first record
+		final long first;
+		int count = 0;
+
+		int[] records = new int[64 * RECORD_SIZE];
+		byte[] arena = new byte[16 * 1024];
+		int arenaSize = 0;
+
+		// set once the segment has been spilled
+		MappedByteBuffer mapped;
+		long spillOffset;
+		int arenaOffset;
+		boolean dropped = false;
+
+		Segment(long first) {
+			this.first = first;
+		}
+
+		boolean fits(int length) {
+			// a single oversized text gets a segment of its own
+			return count < SEGMENT_RECORDS && (count == 0 || arenaSize + length <= SEGMENT_BYTES);
+		}
+
+		void add(int kind, int id, int flags, byte[] text) {
+			int base = count * RECORD_SIZE;
+			if (base + RECORD_SIZE > records.length) {
+				records = Arrays.copyOf(records, records.length * 2);
+			}
+			records[base + KIND] = kind;
+			records[base + ID] = id;
+			records[base + FLAGS] = flags;
+			records[base + OFFSET] = arenaSize;
+			records[base + LENGTH] = text == null ? -1 : text.length;
+
+			if (text != null) {
+				if (arenaSize + text.length > arena.length) {
+					arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + text.length));
+				}
+				System.arraycopy(text, 0, arena, arenaSize, text.length);
+				arenaSize += text.length;
+			}
+			count++;
+		}
+
+		int get(int record, int field) {
+			int index = record * RECORD_SIZE + field;
+			if (records != null) {
+				return records[index];
+			}
+			return mapped.getInt(index * Integer.BYTES);
+		}
+
+		String getText(int record) {
+			int offset = get(record, OFFSET);
+			int length = get(record, LENGTH);
+			if (length < 0) {
+				return null;
+			}
+			if (arena != null) {
+				return new String(arena, offset, length, StandardCharsets.UTF_8);
+			}
+			byte[] bytes = new byte[length];
+			mapped.get(arenaOffset + offset, bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -20,7 +20,9 @@ import org.eclipse.agents.Tracer;
 import org.eclipse.agents.preferences.IPreferenceConstants;
 import org.eclipse.agents.services.agent.IAgentService;
 import org.eclipse.agents.services.protocol.AcpSchema.HttpHeader;
+import org.eclipse.agents.services.protocol.AcpSchema.HttpTransport;
 import org.eclipse.agents.services.protocol.AcpSchema.InitializeResponse;
+import org.eclipse.agents.services.protocol.AcpSchema.McpCapabilities;
 import org.eclipse.agents.services.protocol.AcpSchema.McpServer;
 import org.eclipse.agents.services.protocol.AcpSchema.NewSessionRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.NewSessionResponse;
@@ -62,9 +64,14 @@ public class StartSessionJob extends Job {
 			
 			monitor.subTask("Starting session");
 			
-			boolean supportsSseMcp = initializeResponse.agentCapabilities() != null &&
-					initializeResponse.agentCapabilities().mcpCapabilities() != null &&
-							initializeResponse.agentCapabilities().mcpCapabilities().sse();
+			McpCapabilities mcpCapabilities = initializeResponse.agentCapabilities() == null ? null :
+					initializeResponse.agentCapabilities().mcpCapabilities();
+			boolean supportsSseMcp = mcpCapabilities != null && Boolean.TRUE.equals(mcpCapabilities.sse());
+			boolean supportsHttpMcp = mcpCapabilities != null && Boolean.TRUE.equals(mcpCapabilities.http());
+			
+			// the server serves both transports, the preferred one is given to agents supporting both
+			boolean streamable = supportsHttpMcp && (!supportsSseMcp || IPreferenceConstants.MCP_TRANSPORT_HTTP.equals(
+					Activator.getDefault().getPreferenceStore().getString(IPreferenceConstants.P_MCP_SERVER_TRANSPORT)));
 			
 			boolean supportsLoadSession = initializeResponse.agentCapabilities() != null &&
 					initializeResponse.agentCapabilities().loadSession();
@@ -75,8 +82,8 @@ public class StartSessionJob extends Job {
 
 				this.mcpServers = new McpServer[0];
 				
-				if (supportsSseMcp) {
-					Tracer.trace().trace(Tracer.ACP, service.getName() + " supports SSE MCP");
+				if (supportsHttpMcp || supportsSseMcp) {
+					Tracer.trace().trace(Tracer.ACP, service.getName() + (streamable ? " supports HTTP MCP" : " supports SSE MCP"));
 					
 					boolean eclipseMcpEnabled = Activator.getDefault().getPreferenceStore().getBoolean(IPreferenceConstants.P_MCP_SERVER_ENABLED);
 					
@@ -84,16 +91,24 @@ public class StartSessionJob extends Job {
 						String httpPort = Activator.getDefault().getPreferenceStore().getString(IPreferenceConstants.P_MCP_SERVER_HTTP_PORT);
 						Tracer.trace().trace(Tracer.ACP, "Eclipse MCP is running on port " + httpPort);
 						
-						this.mcpServers = new McpServer[] { new SseTransport(
-								new HttpHeader[0],
-								"Eclipse MCP",
-								"sse",
-								"http://localhost:" + httpPort + "/sse")}; 
+						if (streamable) {
+							this.mcpServers = new McpServer[] { new HttpTransport(
+									new HttpHeader[0],
+									"Eclipse MCP",
+									"http",
+									"http://localhost:" + httpPort + "/mcp")};
+						} else {
+							this.mcpServers = new McpServer[] { new SseTransport(
+									new HttpHeader[0],
+									"Eclipse MCP",
+									"sse",
+									"http://localhost:" + httpPort + "/sse")};
+						}
 					} else {
 						Tracer.trace().trace(Tracer.ACP, "Eclipse MCP is not running");
 					}
 				} else {
-					Tracer.trace().trace(Tracer.ACP, service.getName() + " does not support SSE MCP");
+					Tracer.trace().trace(Tracer.ACP, service.getName() + " does not support HTTP or SSE MCP");
 				}
 				
 				
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller.workspace;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Sparse index of the byte offset of every {@link #STRIDE}th line of a file, used to
+ * seek close to a requested line instead of reading the file from the start.
+ *
+ * Indexes are cached per file and discarded when the file's modification stamp changes.
+ */
+class FileLineIndex {
+
+	static final int STRIDE = 64;
+
+	private static final int CACHE_SIZE = 32;
+
+	private static final Map<IPath, FileLineIndex> cache = new LinkedHashMap<IPath, FileLineIndex>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IPath, FileLineIndex> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private final long modificationStamp;
+
+	// checkpoints[i] is the byte offset of line i * STRIDE
+	private final long[] checkpoints;
+
+	private FileLineIndex(long modificationStamp, long[] checkpoints) {
+		this.modificationStamp = modificationStamp;
+		this.checkpoints = checkpoints;
+	}
+
+	/**
+	 * @return the index for the file's current contents, or null if the charset
+	 * does not encode line breaks as single ASCII bytes
+	 */
+	static FileLineIndex get(IFile file, Charset charset) throws CoreException, IOException {
+		if (!isAsciiCompatible(charset)) {
+			return null;
+		}
+
+		long stamp = file.getModificationStamp();
+		synchronized (cache) {
+			FileLineIndex index = cache.get(file.getFullPath());
+			if (index != null && index.modificationStamp == stamp) {
+				return index;
+			}
+		}
+
+		FileLineIndex index = build(file, stamp);
+		synchronized (cache) {
+			cache.put(file.getFullPath(), index);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the last indexed line at or before the given line
+	 */
+	int checkpointLine(int line) {
+		int checkpoint = Math.min(line / STRIDE, checkpoints.length - 1);
+		return checkpoint * STRIDE;
+	}
+
+	/**
+	 * @return byte offset of a line returned by {@link #checkpointLine(int)}
+	 */
+	long offset(int checkpointLine) {
+		return checkpoints[checkpointLine / STRIDE];
+	}
+
+	private static FileLineIndex build(IFile file, long stamp) throws CoreException, IOException {
+		long[] checkpoints = new long[16];
+		int count = 1; // line 0 starts at offset 0
+		int line = 0;
+		long position = 0;
+		boolean pendingCR = false;
+		byte[] buffer = new byte[64 * 1024];
+
+		try (InputStream in = file.getContents()) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				for (int i = 0; i < read; i++, position++) {
+					byte b = buffer[i];
+					long nextLineStart = -1;
+					if (b == '\n') {
+						nextLineStart = position + 1;
+					} else if (pendingCR) {
+						// a lone \r ends a line as well, matching BufferedReader.readLine()
+						nextLineStart = position;
+					}
+
+					if (nextLineStart != -1 && ++line % STRIDE == 0) {
+						if (count == checkpoints.length) {
+							checkpoints = Arrays.copyOf(checkpoints, count * 2);
+						}
+						checkpoints[count++] = nextLineStart;
+					}
+					pendingCR = b == '\r';
+				}
+			}
+		}
+		return new FileLineIndex(stamp, Arrays.copyOf(checkpoints, count));
+	}
+
+	private static boolean isAsciiCompatible(Charset charset) {
+		byte[] bytes = "\r\n".getBytes(charset); //$NON-NLS-1$
+		return bytes.length == 2 && bytes[0] == '\r' && bytes[1] == '\n';
+	}
+}
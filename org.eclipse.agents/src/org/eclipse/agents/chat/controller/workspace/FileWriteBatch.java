@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller.workspace;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.TextFileChange;
+
+/**
+ * Collects agent writes to files that are not open in an editor and applies those arriving
+ * within a short window in a single workspace operation.
+ *
+ * The workspace broadcasts one resource delta and triggers one auto-build per batch,
+ * rather than one for each file an agent touches.  Each file is still changed on its own,
+ * so a file that fails only fails the writes to that file.
+ */
+class FileWriteBatch extends Job {
+
+	private static final long WINDOW = 50;
+
+	private static final FileWriteBatch instance = new FileWriteBatch();
+
+	private List<Write> pending = new ArrayList<Write>();
+
+	private record Write(IFile file, String content, CompletableFuture<Void> future) {
+	}
+
+	static FileWriteBatch instance() {
+		return instance;
+	}
+
+	private FileWriteBatch() {
+		super("Apply agent edits");
+		setSystem(true);
+	}
+
+	/**
+	 * Queues a write, the first write of a batch schedules it to be applied after the window
+	 * @return a future completed once the write's file has been changed
+	 */
+	CompletableFuture<Void> write(IFile file, String content) {
+		CompletableFuture<Void> future = new CompletableFuture<Void>();
+		boolean first;
+		synchronized (this) {
+			first = pending.isEmpty();
+			pending.add(new Write(file, content, future));
+		}
+		if (first) {
+			schedule(WINDOW);
+		}
+		return future;
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		List<Write> writes;
+		synchronized (this) {
+			writes = pending;
+			pending = new ArrayList<Write>();
+		}
+		if (writes.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+
+		Map<IFile, List<Write>> files = new LinkedHashMap<IFile, List<Write>>();
+		ISchedulingRule rule = null;
+		for (Write write: writes) {
+			files.computeIfAbsent(write.file(), file -> new ArrayList<Write>()).add(write);
+			rule = MultiRule.combine(rule, getRule(write.file()));
+		}
+
+		try {
+			// deltas of the nested operations are held back until this one ends
+			ResourcesPlugin.getWorkspace().run(batchMonitor -> {
+				for (Map.Entry<IFile, List<Write>> entry: files.entrySet()) {
+					apply(entry.getKey(), entry.getValue(), batchMonitor);
+				}
+			}, rule, IWorkspace.AVOID_UPDATE, monitor);
+		} catch (CoreException | RuntimeException e) {
+			Tracer.trace().trace(Tracer.ACP, "Failed to apply " + files.size() + " agent edits", e); //$NON-NLS-1$ //$NON-NLS-2$
+			// writes to files that were already changed have been completed
+			for (Write write: writes) {
+				write.future().completeExceptionally(e);
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	private static void apply(IFile file, List<Write> writes, IProgressMonitor monitor) {
+		try {
+			// a later write to the same file supersedes an earlier one of the batch
+			apply(file, writes.get(writes.size() - 1).content(), monitor);
+			for (Write write: writes) {
+				write.future().complete(null);
+			}
+		} catch (CoreException | RuntimeException e) {
+			Tracer.trace().trace(Tracer.ACP, "Failed to apply agent edit to " + file.getFullPath(), e); //$NON-NLS-1$
+			for (Write write: writes) {
+				write.future().completeExceptionally(e);
+			}
+		}
+	}
+
+	/**
+	 * Applies the new content of a file, only changed lines are replaced
+	 */
+	static void apply(IFile file, String content, IProgressMonitor monitor) throws CoreException {
+		TextFileChange change = new TextFileChange(file.getName(), file);
+		change.setSaveMode(TextFileChange.FORCE_SAVE); // Ensure it saves if the editor is closed
+		change.setEdit(TextDiff.createEdit(change.getCurrentContent(monitor), content));
+		change.initializeValidationData(monitor);
+
+		ISchedulingRule rule = getRule(file);
+		PerformChangeOperation operation = new PerformChangeOperation(change);
+		operation.setSchedulingRule(rule);
+		ResourcesPlugin.getWorkspace().run(operation, rule, IWorkspace.AVOID_UPDATE, monitor);
+
+		RefactoringStatus status = operation.getValidationStatus();
+		if (status != null && status.hasFatalError()) {
+			throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
+					status.getMessageMatchingSeverity(RefactoringStatus.FATAL)));
+		}
+	}
+
+	private static ISchedulingRule getRule(IFile file) {
+		IResourceRuleFactory rules = ResourcesPlugin.getWorkspace().getRuleFactory();
+		return MultiRule.combine(rules.modifyRule(file), rules.validateEditRule(new IResource[] { file }));
+	}
+}
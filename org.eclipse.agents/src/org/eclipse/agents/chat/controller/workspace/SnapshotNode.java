@@ -13,23 +13,29 @@
  *******************************************************************************/
 package org.eclipse.agents.chat.controller.workspace;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
 
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.chat.controller.workspace.SnapshotStore.Snapshot;
 import org.eclipse.compare.IEncodedStreamContentAccessor;
 import org.eclipse.compare.ITypedElement;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.swt.graphics.Image;
 
-public class StringNode  implements ITypedElement, IEncodedStreamContentAccessor {
-	private static final String UTF_16= "UTF-16"; //$NON-NLS-1$
+/**
+ * Compare element for the original content of a file, read from its snapshot when compared
+ */
+public class SnapshotNode implements ITypedElement, IEncodedStreamContentAccessor {
 	private final IFile fFile;
-	private final String content;
+	private final Snapshot snapshot;
 
-	StringNode(IFile file, String content) {
+	SnapshotNode(IFile file, Snapshot snapshot) {
 		fFile= file;
-		this.content = content;
+		this.snapshot = snapshot;
 	}
 
 	@Override
@@ -48,17 +54,16 @@ public class StringNode  implements ITypedElement, IEncodedStreamContentAccessor
 	}
 
 	@Override
-	public InputStream getContents() {
+	public InputStream getContents() throws CoreException {
 		try {
-			return new ByteArrayInputStream(content.getBytes(UTF_16));
-		} catch (UnsupportedEncodingException e) {
-			e.printStackTrace();
-			throw new RuntimeException(e);
+			return snapshot.getContents();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getMessage(), e));
 		}
 	}
 
 	@Override
 	public String getCharset() {
-		return UTF_16;
+		return snapshot.getCharset();
 	}
 }
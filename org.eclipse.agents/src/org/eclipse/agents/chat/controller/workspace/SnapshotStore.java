@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller.workspace;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+
+/**
+ * Content addressed store for the content of files before agents changed them.
+ *
+ * Content is compressed and kept in a file named by its hash under the plugin's state location,
+ * so identical content touched by several sessions is stored once and only the hash stays on the heap.
+ * Content is kept compressed on the heap instead when the state location cannot be written.
+ * Every saved {@link Snapshot} holds a reference to its content, which is deleted once all of
+ * them have been released.
+ */
+class SnapshotStore {
+
+	private static final SnapshotStore instance = new SnapshotStore();
+
+	private static final String ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	private final Map<String, File> files = new ConcurrentHashMap<String, File>();
+	private final Map<String, byte[]> heap = new ConcurrentHashMap<String, byte[]>();
+	// guarded by this
+	private final Map<String, Integer> references = new HashMap<String, Integer>();
+	private File directory;
+
+	/**
+	 * Reference to stored content and the charset it is encoded with
+	 */
+	static class Snapshot {
+
+		private final String hash;
+		private final String charset;
+		private final long length;
+		// guarded by the store
+		private boolean released = false;
+
+		private Snapshot(String hash, String charset, long length) {
+			this.hash = hash;
+			this.charset = charset;
+			this.length = length;
+		}
+
+		String getCharset() {
+			return charset;
+		}
+
+		/**
+		 * @return the uncompressed size of the content in bytes
+		 */
+		long getLength() {
+			return length;
+		}
+
+		InputStream getContents() throws IOException {
+			return instance.open(hash);
+		}
+
+		String getContent() throws IOException {
+			try (InputStream input = getContents()) {
+				return new String(input.readAllBytes(), charset);
+			}
+		}
+	}
+
+	static SnapshotStore instance() {
+		return instance;
+	}
+
+	private SnapshotStore() {
+	}
+
+	Snapshot save(String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		try {
+			return save(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8.name());
+		} catch (IOException e) {
+			Tracer.trace().trace(Tracer.ACP, "Failed to write snapshot, keeping it in memory", e); //$NON-NLS-1$
+			return saveToHeap(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8.name());
+		}
+	}
+
+	/**
+	 * Stores the content read from the stream, the stream is not closed.  The content is compressed
+	 * straight into a temporary file, which is renamed to the content's hash once it is known.
+	 */
+	Snapshot save(InputStream input, String charset) throws IOException {
+		File directory;
+		try {
+			directory = getDirectory();
+		} catch (IOException | RuntimeException e) {
+			Tracer.trace().trace(Tracer.ACP, "Failed to write snapshot, keeping it in memory", e); //$NON-NLS-1$
+			return saveToHeap(input, charset);
+		}
+
+		MessageDigest digest = createDigest();
+		File temp = File.createTempFile("snapshot", ".tmp", directory); //$NON-NLS-1$ //$NON-NLS-2$
+		long length;
+		try (OutputStream output = new DeflaterOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			length = new DigestInputStream(input, digest).transferTo(output);
+		} catch (IOException | RuntimeException e) {
+			temp.delete();
+			throw e;
+		}
+		String hash = HexFormat.of().formatHex(digest.digest());
+
+		synchronized (this) {
+			if (files.containsKey(hash) || heap.containsKey(hash)) {
+				temp.delete();
+			} else {
+				File file = new File(directory, hash);
+				if (!temp.renameTo(file)) {
+					temp.delete();
+					throw new IOException("Cannot rename " + temp + " to " + file); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				files.put(hash, file);
+			}
+			references.merge(hash, 1, Integer::sum);
+		}
+		return new Snapshot(hash, charset, length);
+	}
+
+	private Snapshot saveToHeap(InputStream input, String charset) {
+		MessageDigest digest = createDigest();
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		long length;
+		try (OutputStream output = new DeflaterOutputStream(compressed)) {
+			length = new DigestInputStream(input, digest).transferTo(output);
+		} catch (IOException e) {
+			// not thrown when writing to memory
+			throw new IllegalStateException(e);
+		}
+		String hash = HexFormat.of().formatHex(digest.digest());
+
+		synchronized (this) {
+			if (!files.containsKey(hash)) {
+				heap.putIfAbsent(hash, compressed.toByteArray());
+			}
+			references.merge(hash, 1, Integer::sum);
+		}
+		return new Snapshot(hash, charset, length);
+	}
+
+	/**
+	 * Releases the snapshot's reference to its content, the content is deleted once no snapshot refers to it.
+	 * Releasing a snapshot more than once has no effect.
+	 */
+	synchronized void release(Snapshot snapshot) {
+		if (snapshot.released) {
+			return;
+		}
+		snapshot.released = true;
+
+		Integer count = references.merge(snapshot.hash, -1, Integer::sum);
+		if (count != null && count > 0) {
+			return;
+		}
+		references.remove(snapshot.hash);
+		heap.remove(snapshot.hash);
+		File file = files.remove(snapshot.hash);
+		if (file != null && !file.delete() && file.exists()) {
+			// removed with the rest of the scratch directory when the next run starts
+			Tracer.trace().trace(Tracer.ACP, "Failed to delete snapshot " + file); //$NON-NLS-1$
+		}
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private InputStream open(String hash) throws IOException {
+		File file = files.get(hash);
+		if (file != null) {
+			return new InflaterInputStream(new FileInputStream(file));
+		}
+		byte[] compressed = heap.get(hash);
+		if (compressed != null) {
+			return new InflaterInputStream(new ByteArrayInputStream(compressed));
+		}
+		throw new IOException("No snapshot for " + hash); //$NON-NLS-1$
+	}
+
+	private synchronized File getDirectory() throws IOException {
+		if (directory == null) {
+			directory = Activator.getDefault().getScratchDirectory("snapshots"); //$NON-NLS-1$
+		}
+		return directory;
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.chat.controller.workspace;
+
+import java.util.Arrays;
+
+import org.eclipse.compare.rangedifferencer.IRangeComparator;
+import org.eclipse.compare.rangedifferencer.RangeDifference;
+import org.eclipse.compare.rangedifferencer.RangeDifferencer;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+
+/**
+ * Computes the minimal set of line replacements that turn one text into another, so agent
+ * writes only touch the changed regions of a document instead of replacing all of it.
+ */
+public class TextDiff {
+
+	/**
+	 * @return an edit that transforms oldContent into newContent, with no children if they are equal
+	 */
+	public static MultiTextEdit createEdit(String oldContent, String newContent) {
+		MultiTextEdit edit = new MultiTextEdit();
+		if (oldContent.equals(newContent)) {
+			return edit;
+		}
+
+		// lines common to both ends are excluded before running the LCS
+		Lines oldLines = new Lines(oldContent);
+		Lines newLines = new Lines(newContent);
+
+		int prefix = 0;
+		int max = Math.min(oldLines.count, newLines.count);
+		while (prefix < max && oldLines.rangesEqual(prefix, newLines, prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		max -= prefix;
+		while (suffix < max && oldLines.rangesEqual(oldLines.count - 1 - suffix, newLines, newLines.count - 1 - suffix)) {
+			suffix++;
+		}
+
+		oldLines.restrict(prefix, oldLines.count - suffix);
+		newLines.restrict(prefix, newLines.count - suffix);
+
+		for (RangeDifference difference: RangeDifferencer.findDifferences(newLines, oldLines)) {
+			if (difference.kind() == RangeDifference.NOCHANGE) {
+				continue;
+			}
+			int offset = oldLines.offset(difference.rightStart());
+			int length = oldLines.offset(difference.rightEnd()) - offset;
+			String text = newLines.text(difference.leftStart(), difference.leftEnd());
+			edit.addChild(new ReplaceEdit(offset, length, text));
+		}
+		return edit;
+	}
+
+	/**
+	 * Lines of a text, including their delimiters, compared by hash first
+	 */
+	private static class Lines implements IRangeComparator {
+
+		private final String content;
+		private int[] starts;
+		private int[] hashes;
+		private int count;
+		private int first = 0;
+
+		Lines(String content) {
+			this.content = content;
+			starts = new int[64];
+			int length = content.length();
+			int start = 0;
+			for (int i = 0; i < length; i++) {
+				char c = content.charAt(i);
+				if (c == '\n' || (c == '\r' && (i + 1 == length || content.charAt(i + 1) != '\n'))) {
+					add(start);
+					start = i + 1;
+				}
+			}
+			if (start < length) {
+				add(start);
+			}
+			starts = Arrays.copyOf(starts, count + 1);
+			starts[count] = length;
+
+			hashes = new int[count];
+			for (int i = 0; i < count; i++) {
+				int hash = 0;
+				for (int j = starts[i]; j < starts[i + 1]; j++) {
+					hash = 31 * hash + content.charAt(j);
+				}
+				hashes[i] = hash;
+			}
+		}
+
+		private void add(int start) {
+			if (count + 1 >= starts.length) {
+				starts = Arrays.copyOf(starts, starts.length * 2);
+			}
+			starts[count++] = start;
+		}
+
+		/**
+		 * Limits comparison to lines [from, to), indexes passed to the comparator become relative to from
+		 */
+		void restrict(int from, int to) {
+			first = from;
+			count = to - from;
+		}
+
+		int offset(int index) {
+			return starts[first + index];
+		}
+
+		String text(int from, int to) {
+			return content.substring(offset(from), offset(to));
+		}
+
+		boolean rangesEqual(int absoluteIndex, Lines other, int otherAbsoluteIndex) {
+			if (hashes[absoluteIndex] != other.hashes[otherAbsoluteIndex]) {
+				return false;
+			}
+			int length = starts[absoluteIndex + 1] - starts[absoluteIndex];
+			if (length != other.starts[otherAbsoluteIndex + 1] - other.starts[otherAbsoluteIndex]) {
+				return false;
+			}
+			return content.regionMatches(starts[absoluteIndex], other.content, other.starts[otherAbsoluteIndex], length);
+		}
+
+		@Override
+		public int getRangeCount() {
+			return count;
+		}
+
+		@Override
+		public boolean rangesEqual(int thisIndex, IRangeComparator other, int otherIndex) {
+			Lines lines = (Lines)other;
+			return rangesEqual(first + thisIndex, lines, lines.first + otherIndex);
+		}
+
+		@Override
+		public boolean skipRangeComparison(int length, int maxLength, IRangeComparator other) {
+			return false;
+		}
+	}
+}
@@ -13,14 +13,15 @@
  *******************************************************************************/
 package org.eclipse.agents.chat.controller.workspace;
 
+import java.io.IOException;
+
+import org.eclipse.agents.chat.controller.workspace.SnapshotStore.Snapshot;
 import org.eclipse.compare.CompareConfiguration;
 import org.eclipse.compare.CompareUI;
-import org.eclipse.compare.HistoryItem;
 import org.eclipse.compare.ITypedElement;
 import org.eclipse.compare.ResourceNode;
 import org.eclipse.compare.structuremergeviewer.DiffNode;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IFileState;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.team.internal.ui.synchronize.LocalResourceTypedElement;
@@ -34,24 +35,15 @@ public class WorkspaceChange {
 	int type;
 	
 	Path path;
-	IFileState state;;
-	String originalContent;
+	// original content is read from the snapshot store when reviewed or reverted
+	Snapshot original;
 	WorkspaceController controller;
 	
-	public WorkspaceChange(WorkspaceController controller, int type, Path path, IFileState state) {
+	WorkspaceChange(WorkspaceController controller, int type, Path path, Snapshot original) {
 		this.controller = controller;
 		this.type = type;
 		this.path = path;
-		this.state = state;
-		this.originalContent = null;
-	}
-	
-	public WorkspaceChange(WorkspaceController controller, int type, Path path, String originalContent) {
-		this.controller = controller;
-		this.type = type;
-		this.path = path;
-		this.state = null;
-		this.originalContent = originalContent;
+		this.original = original;
 	}
 	
 	public int getKind() {
@@ -90,12 +82,8 @@ public class WorkspaceChange {
 			//TODO
 		}
 
-		if (state != null) {
-			right = new HistoryItem(left, state);
-		} else if (originalContent != null) {
-			right = new StringNode(file, originalContent);
-		} else {
-			//TODO
+		if (file != null) {
+			right = new SnapshotNode(file, original);
 		}
 		
 		if (left !=null && right != null) {
@@ -123,15 +111,19 @@ public class WorkspaceChange {
 	 * After we will remove the WorkspaceChange from the controller
 	 */
 	public void revert() {
-		if (originalContent == null) {
-			//TODO
+		String originalContent;
+		try {
+			originalContent = original.getContent();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		
+		ITextEditor editor = WorkspaceController.findFileEditor(path);
+		if (editor != null) {
+			controller.writeToEditor(path, editor, originalContent);
 		} else {
-			ITextEditor editor = WorkspaceController.findFileEditor(path);
-			if (editor != null) {
-				controller.writeToEditor(path, editor, originalContent);
-			} else {
-				controller.writeToFile(path, originalContent);
-			}
+			controller.writeToFile(path, originalContent);
 		}
 		controller.removeChange(this);
 		
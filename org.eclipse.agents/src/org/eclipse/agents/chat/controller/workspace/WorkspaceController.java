@@ -17,14 +17,17 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
-import java.util.HashMap;
+import java.nio.charset.Charset;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.agents.Tracer;
+import org.eclipse.agents.chat.controller.workspace.SnapshotStore.Snapshot;
+import org.eclipse.agents.contexts.platform.EditorIndex;
 import org.eclipse.compare.structuremergeviewer.Differencer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IFileState;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ListenerList;
@@ -33,31 +36,30 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
-import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
-import org.eclipse.ltk.core.refactoring.TextFileChange;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.text.edits.MalformedTreeException;
-import org.eclipse.text.edits.ReplaceEdit;
-import org.eclipse.ui.IEditorInput;
-import org.eclipse.ui.IEditorPart;
-import org.eclipse.ui.IEditorReference;
-import org.eclipse.ui.IFileEditorInput;
-import org.eclipse.ui.IWorkbenchPage;
-import org.eclipse.ui.IWorkbenchWindow;
-import org.eclipse.ui.PlatformUI;
-import org.eclipse.ui.part.FileEditorInput;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 public class WorkspaceController {
 
+	// writes to the same file are ordered on a stripe chosen by path, across all sessions
+	private static final int STRIPES = 64;
+	private static final Object[] locks = new Object[STRIPES];
+
+	static {
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
 	String sessionId;
-	public Map<Path, WorkspaceChange> nodes = new HashMap<Path, WorkspaceChange>();
+	private final Map<Path, WorkspaceChange> nodes = new ConcurrentHashMap<Path, WorkspaceChange>();
 	ListenerList<IWorkspaceChangeListener> listeners;
-
-//	Map<Path, IFileState> states = new HashMap<Path, IFileState>();
 	
 	public WorkspaceController(String sessionId) {
 		this.sessionId = sessionId;
 		listeners = new ListenerList<IWorkspaceChangeListener>();
+		EditorIndex.instance().start();
 	}
 	
 	public String getSessionId() {
@@ -105,7 +107,7 @@ public class WorkspaceController {
 	public String readFromFile(Path absolutePath, Integer line, Integer limit) {
 
 		IFile file = findFile(absolutePath);
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		
 		if (file != null) {
 			
@@ -113,24 +115,38 @@ public class WorkspaceController {
 			int lineLimit = limit == null ? -1 : limit;
 			
 			try {
-				InputStreamReader reader = new InputStreamReader(((IFile)file).getContents());
-				BufferedReader breader = new BufferedReader(reader);
+				Charset charset = Charset.forName(file.getCharset());
+				
+				// seek to the closest indexed line rather than scanning from the start of the file
 				int i = 0;
-				String lineRead = breader.readLine();
+				long skip = 0;
+				if (firstLine >= FileLineIndex.STRIDE) {
+					FileLineIndex index = FileLineIndex.get(file, charset);
+					if (index != null) {
+						i = index.checkpointLine(firstLine);
+						skip = index.offset(i);
+					}
+				}
 				
-				while (lineRead != null) {
-					if (i >= firstLine) {
-						if (lineLimit == -1 || i < firstLine + lineLimit) {
-							if (!buffer.isEmpty()) {
+				try (InputStream input = file.getContents()) {
+					input.skipNBytes(skip);
+					BufferedReader breader = new BufferedReader(new InputStreamReader(input, charset));
+					String lineRead = breader.readLine();
+					
+					while (lineRead != null) {
+						if (lineLimit != -1 && i >= firstLine + lineLimit) {
+							break;
+						}
+						if (i >= firstLine) {
+							if (i > firstLine) {
 								buffer.append("\n");
 							}
 							buffer.append(lineRead);
 						}
+						lineRead = breader.readLine();
+						i++;
 					}
-					lineRead = breader.readLine();
-					i++;
 				}
-				breader.close();
 			} catch (CoreException e) {
 				e.printStackTrace();
 				throw new JsonRpcException(e);
@@ -146,24 +162,22 @@ public class WorkspaceController {
 	}
 
 
+	/**
+	 * Must be called on the UI thread, which already serializes edits to the editor's document
+	 */
 	public void writeToEditor(Path absolutePath, ITextEditor editor, String content) {
 		
 		IDocument doc = editor.getDocumentProvider().getDocument(editor.getEditorInput());
 		
-		boolean changeExists = nodes.containsKey(absolutePath);
-		
 		try {
-			WorkspaceChange workspaceChange = changeExists ?
-					nodes.get(absolutePath) :
-					new WorkspaceChange(this, Differencer.CHANGE, absolutePath, doc.get(0, doc.getLength()));
+			String oldContent = doc.get();
 		
-			new ReplaceEdit(0, doc.getLength(), content).apply(doc);
+			// only replace changed lines to keep positions, markers and undo history stable
+			TextDiff.createEdit(oldContent, content).apply(doc);
 			
-			if (changeExists) {
-				modifyChange(workspaceChange);
-			} else {
-				addChange(workspaceChange);
-			}
+			WorkspaceChange workspaceChange = nodes.get(absolutePath);
+			addOrModifyChange(workspaceChange != null ? workspaceChange :
+					new WorkspaceChange(this, Differencer.CHANGE, absolutePath, SnapshotStore.instance().save(oldContent)));
 		
 		} catch (MalformedTreeException e) {
 			e.printStackTrace();
@@ -175,87 +189,100 @@ public class WorkspaceController {
 	}
 
 	public void writeToFile(Path absolutePath, String content) {
-		IFile file = findFile(absolutePath);
-		boolean changeExists = nodes.containsKey(absolutePath);
-		WorkspaceChange workspaceChange = nodes.get(absolutePath);
-		
-		if (!changeExists) {
-			IFileState state = getHistory(absolutePath);
-			if (state != null) {
-				workspaceChange = new WorkspaceChange(this, Differencer.CHANGE, absolutePath, state);
-			} else if (file != null) {
-				workspaceChange = new WorkspaceChange(this, Differencer.CHANGE, absolutePath, readFromFile(absolutePath, null, null));
-			} else {
-				workspaceChange = new WorkspaceChange(this, Differencer.CHANGE, absolutePath, "");
+		if (Display.getCurrent() != null) {
+			// the UI thread must not wait on the batch job, which may itself need the UI thread
+			synchronized (getLock(absolutePath)) {
+				IFile file = findFile(absolutePath);
+				WorkspaceChange workspaceChange = getOrCreateChange(absolutePath, file);
+				if (file != null && file.exists()) {
+					try {
+						FileWriteBatch.apply(file, content, new NullProgressMonitor());
+						addOrModifyChange(workspaceChange);
+					} catch (CoreException e) {
+						releaseUnrecorded(workspaceChange);
+						e.printStackTrace();
+						throw new JsonRpcException(e);
+					}
+				} else {
+					releaseUnrecorded(workspaceChange);
+				}
 			}
-		}
-		
-		if (file != null && file.exists()) {
-		    try {
-		    	TextFileChange change = new TextFileChange(content, file);
-		    	change.setSaveMode(TextFileChange.FORCE_SAVE); // Ensure it saves if the editor is closed
-		    	ReplaceEdit edit = new ReplaceEdit(0, file.getContents().available(), content);
-		    	change.setEdit(edit);
-		    	change.initializeValidationData(new NullProgressMonitor());
-		    	PerformChangeOperation op = new PerformChangeOperation(change);
-		    	ResourcesPlugin.getWorkspace().run(op, new NullProgressMonitor());
-		        
-		        if (changeExists) {
-		        	modifyChange(workspaceChange);
-		        } else {
-		        	addChange(workspaceChange);
-		        }
-		    } catch (CoreException e) {
-		    	e.printStackTrace();
-		    	throw new JsonRpcException(e);
-		    } catch (UnsupportedEncodingException e) {
-				e.printStackTrace();
-				throw new JsonRpcException(e);
-			} catch (IOException e) {
+		} else {
+			try {
+				writeToFileAsync(absolutePath, content).join();
+			} catch (CompletionException e) {
 				e.printStackTrace();
-				throw new JsonRpcException(e);
+				throw new JsonRpcException(e.getCause());
 			}
 		}
 	}
-	
-	public IFileState getHistory(Path path) {
-		try {
-			IFile file = findFile(path);
+
+	/**
+	 * Queues the write with others arriving at about the same time, so they are applied
+	 * in one workspace operation with a single resource delta and build
+	 * @return a future completed once the file has been written and the change recorded
+	 */
+	public CompletableFuture<Void> writeToFileAsync(Path absolutePath, String content) {
+		IFile file;
+		WorkspaceChange workspaceChange;
+		CompletableFuture<Void> write;
+		// the original content is captured, and the write queued, in the order writes to a path are made
+		synchronized (getLock(absolutePath)) {
+			file = findFile(absolutePath);
+			workspaceChange = getOrCreateChange(absolutePath, file);
+			if (file == null || !file.exists()) {
+				releaseUnrecorded(workspaceChange);
+				return CompletableFuture.completedFuture(null);
+			}
+			write = FileWriteBatch.instance().write(file, content);
+		}
+		return write.whenComplete((result, error) -> {
+			if (error == null) {
+				addOrModifyChange(workspaceChange);
+			} else {
+				releaseUnrecorded(workspaceChange);
+			}
+		});
+	}
+
+	/**
+	 * Releases the original content of a change created for a write that was not made
+	 */
+	private void releaseUnrecorded(WorkspaceChange workspaceChange) {
+		if (nodes.get(workspaceChange.path) != workspaceChange) {
+			SnapshotStore.instance().release(workspaceChange.original);
+		}
+	}
+
+	private WorkspaceChange getOrCreateChange(Path absolutePath, IFile file) {
+		WorkspaceChange workspaceChange = nodes.get(absolutePath);
+		
+		if (workspaceChange == null) {
+			Snapshot original;
 			if (file != null) {
-				IFileState[] fs = file.getHistory(null);
-				if (fs == null || fs.length == 0) {
-					InputStream source = file.getContents(true); // Get current contents
-			        file.setContents(source, IFile.FORCE, new NullProgressMonitor());
-			        fs = file.getHistory(null);
-				}
-				if (fs != null && fs.length > 0) {
-					return fs[fs.length - 1];
+				// the bytes of the file are kept as is, so reverting restores its line delimiters
+				try (InputStream input = file.getContents(true)) {
+					original = SnapshotStore.instance().save(input, file.getCharset());
+				} catch (CoreException e) {
+					e.printStackTrace();
+					throw new JsonRpcException(e);
+				} catch (IOException e) {
+					e.printStackTrace();
+					throw new JsonRpcException(e);
 				}
+			} else {
+				original = SnapshotStore.instance().save("");
 			}
-		} catch (CoreException ex) {
-			ex.printStackTrace();
+			workspaceChange = new WorkspaceChange(this, Differencer.CHANGE, absolutePath, original);
 		}
-		return null;
+		return workspaceChange;
 	}
 	
+	/**
+	 * @return the instantiated text editor open on this file, editors that have not been restored are not returned
+	 */
 	public static ITextEditor findFileEditor(Path absolutePath) {
-		ITextEditor editor = null;
-		for (IWorkbenchWindow ww : PlatformUI.getWorkbench().getWorkbenchWindows()) {
-			for (IWorkbenchPage page : ww.getPages()) {
-				for (IEditorReference reference : page.getEditorReferences()) {
-					IEditorPart part = reference.getEditor(true);
-					if (part != null && part instanceof ITextEditor) {
-						IEditorInput input = part.getEditorInput();
-						if (input instanceof FileEditorInput) {
-							IFile file = ((IFileEditorInput)input).getFile();
-							if (file.getRawLocation().equals(absolutePath)) {
-								editor = (ITextEditor)part;
-							}
-						}
-					}
-				}
-			}
-		}
+		ITextEditor editor = EditorIndex.instance().get(absolutePath);
 		Tracer.trace().trace(Tracer.ACP, absolutePath.toOSString() + ": " + (editor != null));
 		
 		return editor;
@@ -279,19 +306,62 @@ public class WorkspaceController {
 		return null;
 	}
 
+	private static Object getLock(Path absolutePath) {
+		return locks[(absolutePath.hashCode() & 0x7fffffff) % STRIPES];
+	}
+
+	/**
+	 * Forgets every recorded change and releases the original content each of them holds
+	 */
 	public void clearVariants() {
-		nodes.clear();
+		for (WorkspaceChange change: nodes.values()) {
+			if (nodes.remove(change.path, change)) {
+				SnapshotStore.instance().release(change.original);
+			}
+		}
+	}
+
+	/**
+	 * @return the change recorded for this file, or null
+	 */
+	public WorkspaceChange getChange(Path absolutePath) {
+		return nodes.get(absolutePath);
+	}
+
+	/**
+	 * Records the change unless one already exists for its path, in which case that change,
+	 * and the original content it holds, is kept and reported as modified
+	 */
+	public void addOrModifyChange(WorkspaceChange change) {
+		WorkspaceChange existing = nodes.putIfAbsent(change.path, change);
+		if (existing == null) {
+			for (IWorkspaceChangeListener listener: listeners) {
+				listener.changeAdded(sessionId, change);
+			}
+		} else {
+			if (existing != change) {
+				// a change recorded concurrently for the same path already holds the original content
+				SnapshotStore.instance().release(change.original);
+			}
+			modifyChange(existing);
+		}
 	}
 
 	public void addChange(WorkspaceChange change) {
-		nodes.put(change.path, change);
+		WorkspaceChange replaced = nodes.put(change.path, change);
+		if (replaced != null && replaced != change) {
+			SnapshotStore.instance().release(replaced.original);
+		}
 		for (IWorkspaceChangeListener listener: listeners) {
 			listener.changeAdded(sessionId, change);
 		}
 	}
 	
 	public void removeChange(WorkspaceChange change) {
-		nodes.remove(change.path);
+		// a newer change recorded for the same path is left in place
+		if (nodes.remove(change.path, change)) {
+			SnapshotStore.instance().release(change.original);
+		}
 		for (IWorkspaceChangeListener listener: listeners) {
 			listener.changeRemoved(sessionId, change);
 		}
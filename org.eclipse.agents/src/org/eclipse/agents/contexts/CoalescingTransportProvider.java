@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
+import io.modelcontextprotocol.spec.McpServerTransportProviderBase;
+import io.modelcontextprotocol.spec.McpStreamableServerSession;
+import io.modelcontextprotocol.spec.McpStreamableServerTransportProvider;
+import reactor.core.publisher.Mono;
+
+/**
+ * Transport that sends list_changed notifications arriving within a short window as one per kind.
+ *
+ * The server notifies clients of each tool or resource added or removed, so restoring a workbench
+ * with many editors would otherwise have every client fetch the resource list once per editor.
+ * Other notifications are sent right away.
+ *
+ * Sessions are wrapped by {@link ResourceSubscriptions}, which answers resource subscriptions.
+ * {@link Sse} and {@link Streamable} wrap the providers of the two HTTP transports.
+ */
+abstract class CoalescingTransportProvider<T extends McpServerTransportProviderBase> implements McpServerTransportProviderBase {
+
+	private static final long WINDOW = 100;
+
+	private static final Set<String> COALESCED = Set.of(
+			McpSchema.METHOD_NOTIFICATION_TOOLS_LIST_CHANGED,
+			McpSchema.METHOD_NOTIFICATION_RESOURCES_LIST_CHANGED);
+
+	protected final T delegate;
+	protected final ResourceSubscriptions subscriptions;
+	private final Set<String> pending = new LinkedHashSet<String>();
+	private final Job job;
+
+	CoalescingTransportProvider(T delegate, String name, ResourceSubscriptions subscriptions) {
+		this.delegate = delegate;
+		this.subscriptions = subscriptions;
+		this.job = new Job("Notify " + name + " clients") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+	}
+
+	/**
+	 * Provider of the HTTP with SSE transport
+	 */
+	static class Sse extends CoalescingTransportProvider<McpServerTransportProvider> implements McpServerTransportProvider {
+
+		Sse(McpServerTransportProvider delegate, String name, ResourceSubscriptions subscriptions) {
+			super(delegate, name, subscriptions);
+		}
+
+		@Override
+		public void setSessionFactory(McpServerSession.Factory sessionFactory) {
+			delegate.setSessionFactory(transport -> subscriptions.wrap(sessionFactory.create(transport), transport));
+		}
+	}
+
+	/**
+	 * Provider of the Streamable HTTP transport
+	 */
+	static class Streamable extends CoalescingTransportProvider<McpStreamableServerTransportProvider> implements McpStreamableServerTransportProvider {
+
+		Streamable(McpStreamableServerTransportProvider delegate, String name, ResourceSubscriptions subscriptions) {
+			super(delegate, name, subscriptions);
+		}
+
+		@Override
+		public void setSessionFactory(McpStreamableServerSession.Factory sessionFactory) {
+			delegate.setSessionFactory(request -> {
+				McpStreamableServerSession.McpStreamableServerSessionInit init = sessionFactory.startSession(request);
+				return new McpStreamableServerSession.McpStreamableServerSessionInit(
+						subscriptions.wrap(init.session()), init.initResult());
+			});
+		}
+	}
+
+	@Override
+	public Mono<Void> notifyClients(String method, Object params) {
+		if (!COALESCED.contains(method)) {
+			return delegate.notifyClients(method, params);
+		}
+
+		boolean first;
+		synchronized (pending) {
+			first = pending.isEmpty();
+			pending.add(method);
+		}
+		if (first) {
+			job.schedule(WINDOW);
+		}
+		return Mono.empty();
+	}
+
+	private void flush() {
+		List<String> methods;
+		synchronized (pending) {
+			methods = new ArrayList<String>(pending);
+			pending.clear();
+		}
+		for (String method: methods) {
+			try {
+				delegate.notifyClients(method, null).block();
+			} catch (RuntimeException e) {
+				Tracer.trace().trace(Tracer.MCP, "Failed to send " + method, e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	@Override
+	public Mono<Void> closeGracefully() {
+		job.cancel();
+		return delegate.closeGracefully();
+	}
+
+	@Override
+	public List<String> protocolVersions() {
+		return delegate.protocolVersions();
+	}
+}
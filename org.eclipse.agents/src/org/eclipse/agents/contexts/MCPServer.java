@@ -15,16 +15,24 @@ package org.eclipse.agents.contexts;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.agents.IFactoryProvider;
 import org.eclipse.agents.Tracer;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.platform.MarkerIndex;
+import org.eclipse.agents.contexts.platform.WorkbenchState;
+import org.eclipse.agents.contexts.platform.resource.FileSizeCache;
 import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.springaicommunity.mcp.provider.complete.SyncMcpCompleteProvider;
 import org.springaicommunity.mcp.provider.prompt.SyncMcpPromptProvider;
@@ -38,12 +46,14 @@ import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecificatio
 import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
 import io.modelcontextprotocol.server.McpSyncServer;
 import io.modelcontextprotocol.server.transport.HttpServletSseServerTransportProvider;
+import io.modelcontextprotocol.server.transport.HttpServletStreamableServerTransportProvider;
 import io.modelcontextprotocol.spec.McpError;
 import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.CompleteResult;
+import io.modelcontextprotocol.spec.McpSchema.CompleteResult.CompleteCompletion;
 import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
 import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
 import io.modelcontextprotocol.spec.McpSchema.ServerCapabilities;
-import jakarta.servlet.Servlet;
 
 public class MCPServer {
 
@@ -56,66 +66,100 @@ public class MCPServer {
 
 	private boolean copyLogsToSysError = true; // Boolean.getBoolean("com.ibm.systemz.db2.mcp.copyLogsToSysError");
 
-	McpSyncServer syncServer;
+	// one server per transport, built from the same specifications
+	volatile List<McpSyncServer> syncServers = List.of();
 	QueuedThreadPool threadPool;
 	String url;
 	IFactoryProvider[] factories;
 	
-	List<SyncCompletionSpecification> completions;
-	List<SyncToolSpecification> tools;
-//	SyncMcpLogginProvider loggers;
-	List<SyncPromptSpecification> prompts;
-	List<SyncResourceSpecification> resources;
-//	SyncMcpElicitationProvider elicitors;
-//	SyncMcpProgressProvider progressives;
-//	SyncMcpSamplingProvider samplers;
+	// factories that may be added while running, their completions are registered when the server is built
+	IFactoryProvider[] knownFactories;
+	Map<IFactoryProvider, List<SyncCompletionSpecification>> completionsByFactory;
 	
-	Set<SyncToolSpecification> removedTools;
-	Set<SyncResourceSpecification> dynamicResources;
-	List<IResourceTemplate<?, ?>> resourceTemplates;
+	// by factory, in the order they were added
+	Map<IFactoryProvider, Contribution> contributions;
+	
+	// by tool name and resource uri
+	Map<String, SyncToolSpecification> toolsByName;
+	Map<String, SyncToolSpecification> removedTools;
+	Map<String, SyncResourceSpecification> dynamicResources;
+	volatile ResourceTemplateRouter resourceRouter;
+	ResourceSubscriptions subscriptions;
 	
 	StringBuffer description;
 	
 	
 	org.eclipse.jetty.server.Server jettyServer = null;
 	
+	/**
+	 * The specifications generated from a factory's annotated objects, its resource templates,
+	 * and the services it was initialized with
+	 */
+	record Contribution(List<SyncToolSpecification> tools, List<SyncResourceSpecification> resources,
+			List<SyncPromptSpecification> prompts, List<SyncCompletionSpecification> completions,
+			List<IResourceTemplate<?, ?>> templates, MCPServices services) {
+	}
+	
+	/**
+	 * Serves HTTP with SSE on /sse, and the Streamable HTTP transport on /mcp, on the same port.
+	 * Connections may use HTTP/1.1 or HTTP/2 cleartext, and responses are compressed for clients that accept it.
+	 */
 	public MCPServer(String name, String version, int port, IFactoryProvider[] factories) {
+		this(name, version, port, factories, factories);
+	}
+	
+	/**
+	 * @param knownFactories the factories, in addition to factories, that may be added with
+	 * {@link #addFactories(IFactoryProvider[])} while the server is running
+	 */
+	public MCPServer(String name, String version, int port, IFactoryProvider[] factories, IFactoryProvider[] knownFactories) {
 		this.name = name;
 		this.version = version;
 		this.port = port;
 		this.factories = factories;
+		this.knownFactories = knownFactories;
 		
-		removedTools = new HashSet<SyncToolSpecification>(); 
-		dynamicResources = new HashSet<SyncResourceSpecification>();
-		resourceTemplates = new ArrayList<IResourceTemplate<?, ?>>();
+		completionsByFactory = new LinkedHashMap<IFactoryProvider, List<SyncCompletionSpecification>>();
+		toolsByName = new ConcurrentHashMap<String, SyncToolSpecification>();
+		removedTools = new ConcurrentHashMap<String, SyncToolSpecification>(); 
+		dynamicResources = new ConcurrentHashMap<String, SyncResourceSpecification>();
+		contributions = new LinkedHashMap<IFactoryProvider, Contribution>();
 	}
 	
 	public void start() {
 	
 		description = new StringBuffer();
 
+		toolsByName.clear();
 		removedTools.clear();
 		dynamicResources.clear();
-		resourceTemplates.clear();
+		contributions.clear();
+		completionsByFactory.clear();
 		
-		List<Object> annotated = new ArrayList<Object>();
+		List<SyncToolSpecification> tools = new ArrayList<SyncToolSpecification>();
+		List<SyncPromptSpecification> prompts = new ArrayList<SyncPromptSpecification>();
+		List<SyncResourceSpecification> resources = new ArrayList<SyncResourceSpecification>();
 		for (IFactoryProvider factory: factories) {
-			for (Object o: factory.getAnnotatedObjects()) {
-				annotated.add(o);
+			Contribution contribution = contribute(factory);
+			contributions.put(factory, contribution);
+			completionsByFactory.put(factory, contribution.completions());
+			tools.addAll(contribution.tools());
+			prompts.addAll(contribution.prompts());
+			resources.addAll(contribution.resources());
+			for (SyncToolSpecification tool: contribution.tools()) {
+				toolsByName.put(tool.tool().name(), tool);
 			}
-			resourceTemplates.addAll(Arrays.asList(factory.createResourceTemplates()));
 		}
-		
-		completions = new SyncMcpCompleteProvider(annotated).getCompleteSpecifications();
-		tools = new SyncMcpToolProvider(annotated).getToolSpecifications();
-//		loggers = new SyncMcpLogginProvider(factoryList);
-		prompts = new SyncMcpPromptProvider(annotated).getPromptSpecifications();
-		resources = new SyncMcpResourceProvider(annotated).getResourceSpecifications();
-//		elicitors = new SyncMcpElicitationProvider(factoryList);
-//		progressives = new SyncMcpProgressProvider(factoryList);
-//		samplers = new SyncMcpSamplingProvider(factoryList);
+		for (IFactoryProvider factory: knownFactories) {
+			if (!completionsByFactory.containsKey(factory)) {
+				completionsByFactory.put(factory, new SyncMcpCompleteProvider(
+						Arrays.asList(factory.getAnnotatedObjects())).getCompleteSpecifications());
+			}
+		}
+		List<SyncCompletionSpecification> completions = routeCompletions();
+		updateRouter();
 
-		this.url = "http://localhost:" + port + "/sse";
+		this.url = "http://localhost:" + port;
 
 		
 		//HttpServletSseServerTransportProvider transportProvider =
@@ -123,59 +167,85 @@ public class MCPServer {
 		//	        new ObjectMapper(), "/", "/sse");
 		
 		// If JsonMapper not specified, a JacksonJsonMapper will be created from the configured ObjectMapper
-		HttpServletSseServerTransportProvider transportProvider = HttpServletSseServerTransportProvider.builder()
+		HttpServletSseServerTransportProvider sseProvider = HttpServletSseServerTransportProvider.builder()
 				.messageEndpoint("/")
 				.sseEndpoint("/sse")
 				.build();
+		HttpServletStreamableServerTransportProvider streamableProvider = HttpServletStreamableServerTransportProvider.builder()
+				.mcpEndpoint("/mcp")
+				.build();
 
 		ServerCapabilities capabilities = ServerCapabilities.builder().resources(true, true) // Enable resource support
 				.tools(true) // Enable tool support
-				.prompts(false) // Enable prompt support
+				.prompts(true) // Enable prompt support
 				.completions()
 				.logging() // Enable logging support
 				.build();
 		
 		
-		// Create a server with custom configuration
-		this.syncServer = McpServer.sync(transportProvider)
-			    .serverInfo(name, version)
-			    .capabilities(capabilities)
-			    .tools(tools)
-	            .resources(resources)
-			    .completions(completions)
-			    .prompts(prompts)
-			    .build();
+		// Create a server per transport with custom configuration, agents connect with the one they support
+		// list_changed notifications sent for each tool or resource added or removed are coalesced
+		subscriptions = new ResourceSubscriptions(this);
+		List<McpServer.SyncSpecification<?>> specifications = List.of(
+				McpServer.sync(new CoalescingTransportProvider.Sse(sseProvider, name, subscriptions)),
+				McpServer.sync(new CoalescingTransportProvider.Streamable(streamableProvider, name, subscriptions)));
+		List<McpSyncServer> servers = new ArrayList<McpSyncServer>();
+		for (McpServer.SyncSpecification<?> specification: specifications) {
+			servers.add(specification
+				    .serverInfo(name, version)
+				    .capabilities(capabilities)
+				    .tools(tools)
+		            .resources(resources)
+				    .completions(completions)
+				    .prompts(prompts)
+				    .build());
+		}
+		this.syncServers = servers;
 	        
 	        
-		log(LoggingLevel.INFO, this, url);
+		log(LoggingLevel.INFO, this, url + "/sse, " + url + "/mcp"); //$NON-NLS-1$
 	
 		running = true;
 
-		for (IFactoryProvider factory: factories) {
-			factory.initialize(new MCPServices(this));
-			factory.createResourceTemplates();
+		for (Contribution contribution: getContributions()) {
+			contribution.services().initialize();
 		}
 
-		syncServer.notifyResourcesListChanged();
+		for (McpSyncServer syncServer: syncServers) {
+			syncServer.notifyResourcesListChanged();
+		}
 	
 		threadPool = new QueuedThreadPool();
 		threadPool.setName(name + "-Thread");
 
 		jettyServer = new org.eclipse.jetty.server.Server(threadPool);
 	
-		ServerConnector connector = new ServerConnector(jettyServer);
+		// clients may speak HTTP/2 without TLS, by upgrading or with prior knowledge
+		HttpConfiguration configuration = new HttpConfiguration();
+		ServerConnector connector = new ServerConnector(jettyServer,
+				new HttpConnectionFactory(configuration), new HTTP2CServerConnectionFactory(configuration));
 		connector.setPort(port);
 		jettyServer.addConnector(connector);
 
 		try {
 			ServletContextHandler context = new ServletContextHandler();
 			context.setContextPath("/");
-			context.addServlet(new ServletHolder((Servlet)transportProvider), "/*");
-			jettyServer.setHandler(context);
+			context.addServlet(new ServletHolder(streamableProvider), "/mcp");
+			context.addServlet(new ServletHolder(sseProvider), "/*");
+			
+			// large results, such as file contents, are compressed for clients that accept it,
+			// and events are flushed as they are written
+			GzipHandler gzip = new GzipHandler();
+			gzip.setMinGzipSize(1024);
+			gzip.setSyncFlush(true);
+			gzip.setHandler(context);
+			jettyServer.setHandler(gzip);
 			jettyServer.start();
 			jettyServer.setStopAtShutdown(true);
 			
-			syncServer.notifyToolsListChanged();
+			for (McpSyncServer syncServer: syncServers) {
+				syncServer.notifyToolsListChanged();
+			}
 	
 			// Send logging notifications
 			log(LoggingLevel.INFO, this, "Server initialized");
@@ -186,15 +256,204 @@ public class MCPServer {
 		}
 	}
 	
-	McpSyncServer getSyncServer() {
-		return syncServer;
+	/**
+	 * Generates the specifications of the factory's annotated objects
+	 */
+	private Contribution contribute(IFactoryProvider factory) {
+		List<Object> annotated = Arrays.asList(factory.getAnnotatedObjects());
+		return new Contribution(
+				new SyncMcpToolProvider(annotated).getToolSpecifications(),
+				new SyncMcpResourceProvider(annotated).getResourceSpecifications(),
+				new SyncMcpPromptProvider(annotated).getPromptSpecifications(),
+				new SyncMcpCompleteProvider(annotated).getCompleteSpecifications(),
+				Arrays.asList(factory.createResourceTemplates()),
+				new MCPServices(this, factory));
+	}
+	
+	private synchronized boolean hasContribution(IFactoryProvider factory) {
+		return contributions.containsKey(factory);
+	}
+	
+	private synchronized List<Contribution> getContributions() {
+		return new ArrayList<Contribution>(contributions.values());
+	}
+	
+	/**
+	 * Registers one completion per reference, answered by the first current factory that completes it,
+	 * so factories known when the server is built can be added and removed while it runs
+	 */
+	private List<SyncCompletionSpecification> routeCompletions() {
+		Map<McpSchema.CompleteReference, Map<IFactoryProvider, SyncCompletionSpecification>> byReference =
+				new LinkedHashMap<McpSchema.CompleteReference, Map<IFactoryProvider, SyncCompletionSpecification>>();
+		for (Map.Entry<IFactoryProvider, List<SyncCompletionSpecification>> entry: completionsByFactory.entrySet()) {
+			for (SyncCompletionSpecification completion: entry.getValue()) {
+				byReference.computeIfAbsent(completion.referenceKey(),
+						reference -> new LinkedHashMap<IFactoryProvider, SyncCompletionSpecification>())
+					.putIfAbsent(entry.getKey(), completion);
+			}
+		}
+		
+		List<SyncCompletionSpecification> routed = new ArrayList<SyncCompletionSpecification>();
+		for (Map.Entry<McpSchema.CompleteReference, Map<IFactoryProvider, SyncCompletionSpecification>> entry: byReference.entrySet()) {
+			Map<IFactoryProvider, SyncCompletionSpecification> candidates = entry.getValue();
+			routed.add(new SyncCompletionSpecification(entry.getKey(), (exchange, request) -> {
+				for (Map.Entry<IFactoryProvider, SyncCompletionSpecification> candidate: candidates.entrySet()) {
+					if (hasContribution(candidate.getKey())) {
+						return candidate.getValue().completionHandler().apply(exchange, request);
+					}
+				}
+				return new CompleteResult(new CompleteCompletion(List.of(), 0, false));
+			}));
+		}
+		return routed;
+	}
+	
+	/**
+	 * Routes uris to the resource templates of the current factories
+	 */
+	private void updateRouter() {
+		List<IResourceTemplate<?, ?>> templates = new ArrayList<IResourceTemplate<?, ?>>();
+		for (Contribution contribution: getContributions()) {
+			templates.addAll(contribution.templates());
+		}
+		ResourceTemplateRouter previous = resourceRouter;
+		resourceRouter = new ResourceTemplateRouter(templates);
+		if (previous != null) {
+			previous.dispose();
+		}
+	}
+	
+	/**
+	 * Adds the tools, resources and prompts of factories to the running server, without restarting its transport.
+	 * Completions can only be registered when the server is built, so only the completions of known factories are served.
+	 * @return false if a factory that was not known when the server was built contributes completions,
+	 * and the server must be restarted
+	 */
+	public boolean addFactories(IFactoryProvider[] added) {
+		Map<IFactoryProvider, Contribution> addedContributions = new LinkedHashMap<IFactoryProvider, Contribution>();
+		for (IFactoryProvider factory: added) {
+			if (!hasContribution(factory)) {
+				Contribution contribution = contribute(factory);
+				if (!contribution.completions().isEmpty() && !completionsByFactory.containsKey(factory)) {
+					return false;
+				}
+				addedContributions.put(factory, contribution);
+			}
+		}
+		synchronized (this) {
+			contributions.putAll(addedContributions);
+		}
+		
+		for (Contribution contribution: addedContributions.values()) {
+			for (SyncToolSpecification tool: contribution.tools()) {
+				if (toolsByName.putIfAbsent(tool.tool().name(), tool) == null) {
+					for (McpSyncServer syncServer: syncServers) {
+						syncServer.addTool(tool);
+					}
+				} else {
+					Tracer.trace().trace(Tracer.MCP, "Duplicate tool: " + tool.tool().name()); //$NON-NLS-1$
+				}
+			}
+			for (McpSyncServer syncServer: syncServers) {
+				for (SyncResourceSpecification resource: contribution.resources()) {
+					syncServer.addResource(resource);
+				}
+				for (SyncPromptSpecification prompt: contribution.prompts()) {
+					try {
+						syncServer.addPrompt(prompt);
+					} catch (McpError e) {
+						Tracer.trace().trace(Tracer.MCP, "Failed to add prompt " + prompt.prompt().name(), e); //$NON-NLS-1$
+					}
+				}
+			}
+		}
+		updateRouter();
+		
+		for (Contribution contribution: addedContributions.values()) {
+			contribution.services().initialize();
+		}
+		return true;
+	}
+	
+	/**
+	 * Removes the tools, resources and prompts of factories from the running server, including the resources
+	 * they added, without restarting its transport.  Their completions stay registered, and answer no values.
+	 * @return true, the server never needs to be restarted
+	 */
+	public boolean removeFactories(IFactoryProvider[] removed) {
+		List<Contribution> removedContributions = new ArrayList<Contribution>();
+		synchronized (this) {
+			for (IFactoryProvider factory: removed) {
+				Contribution contribution = contributions.remove(factory);
+				if (contribution != null) {
+					removedContributions.add(contribution);
+				}
+			}
+		}
+		
+		for (Contribution contribution: removedContributions) {
+			for (String uri: contribution.services().dispose()) {
+				removeResource(uri);
+			}
+			for (SyncToolSpecification tool: contribution.tools()) {
+				String toolName = tool.tool().name();
+				if (toolsByName.remove(toolName, tool) && removedTools.remove(toolName) == null) {
+					removeTool(toolName);
+				}
+			}
+			for (McpSyncServer syncServer: syncServers) {
+				for (SyncResourceSpecification resource: contribution.resources()) {
+					try {
+						syncServer.removeResource(resource.resource().uri());
+					} catch (McpError e) {
+						Tracer.trace().trace(Tracer.MCP, "Failed to remove resource " + resource.resource().uri(), e); //$NON-NLS-1$
+					}
+				}
+				for (SyncPromptSpecification prompt: contribution.prompts()) {
+					try {
+						syncServer.removePrompt(prompt.prompt().name());
+					} catch (McpError e) {
+						Tracer.trace().trace(Tracer.MCP, "Failed to remove prompt " + prompt.prompt().name(), e); //$NON-NLS-1$
+					}
+				}
+			}
+		}
+		updateRouter();
+		return true;
+	}
+	
+	private void removeTool(String toolName) {
+		for (McpSyncServer syncServer: syncServers) {
+			try {
+				syncServer.removeTool(toolName);
+			} catch (McpError e) {
+				Tracer.trace().trace(Tracer.MCP, "Failed to remove tool " + toolName, e); //$NON-NLS-1$
+			}
+		}
 	}
 	
 	public void stop() {
 
-		if (syncServer != null) {
+		if (resourceRouter != null) {
+			resourceRouter.dispose();
+			resourceRouter = null;
+		}
+		for (Contribution contribution: getContributions()) {
+			contribution.services().dispose();
+		}
+		MarkerIndex.instance().dispose();
+		FileSizeCache.instance().dispose();
+		WorkbenchState.instance().stop();
+
+		if (subscriptions != null) {
+			subscriptions.dispose();
+			subscriptions = null;
+		}
+
+		for (McpSyncServer syncServer: syncServers) {
 			syncServer.closeGracefully();
 		}
+		syncServers = List.of();
 		
 		if (jettyServer != null) {
 			try {
@@ -206,12 +465,8 @@ public class MCPServer {
 	}
 
 	public IResourceTemplate<?, ?> getResourceTemplate(String uri) {
-		for (IResourceTemplate<?, ?> adapter: resourceTemplates) {
-			if (adapter.matches(uri)) {
-				return adapter.fromUri(uri);
-			}
-		}
-		return null;
+		ResourceTemplateRouter router = resourceRouter;
+		return router == null ? null : router.resolve(uri);
 	}
 
 	public void log(McpSchema.LoggingLevel level, Object source, String message) {
@@ -227,8 +482,11 @@ public class MCPServer {
 			sourceClass = (Class<?>) source;
 		}
 	
-		syncServer.loggingNotification(LoggingMessageNotification.builder().level(level)
-			.logger(sourceClass.getCanonicalName()).data(message).build());
+		LoggingMessageNotification notification = LoggingMessageNotification.builder().level(level)
+			.logger(sourceClass.getCanonicalName()).data(message).build();
+		for (McpSyncServer syncServer: syncServers) {
+			syncServer.loggingNotification(notification);
+		}
 	}
 	
 	public void log(Throwable throwable) {
@@ -250,34 +508,25 @@ public class MCPServer {
 	}
 	
 
+	/**
+	 * @return true if the tool is currently available on the server
+	 */
 	public boolean getVisibility(String toolName) {
-		for (SyncToolSpecification tool: removedTools) {
-			if (tool.tool().name().equals(toolName)) {
-				return true;
-			}
-		}
-		return false;
+		return toolsByName.containsKey(toolName) && !removedTools.containsKey(toolName);
 	}
 	
 	public boolean setVisibility(String toolName, boolean visible) {
-		SyncToolSpecification match = null;
-		for (SyncToolSpecification tool: removedTools) {
-			if (tool.tool().name().equals(toolName)) {
-				match = tool;
-				break;
-			}
-		}
-		
+		SyncToolSpecification match = toolsByName.get(toolName);
 		if (match != null) {
-			if (removedTools.contains(match) && visible) {
-				removedTools.remove(match);
-				syncServer.addTool(match);
-				syncServer.notifyToolsListChanged();
+			if (visible && removedTools.remove(toolName, match)) {
+				for (McpSyncServer syncServer: syncServers) {
+					syncServer.addTool(match);
+				}
 				return true;
-			} else if (!removedTools.contains(match) && !visible) {
-				removedTools.add(match);
-				syncServer.removeTool(toolName);
-				syncServer.notifyToolsListChanged();
+			} else if (!visible && removedTools.putIfAbsent(toolName, match) == null) {
+				for (McpSyncServer syncServer: syncServers) {
+					syncServer.removeTool(toolName);
+				}
 				return true;
 			}
 		}
@@ -286,27 +535,23 @@ public class MCPServer {
 	}
 
 	public boolean addResource(SyncResourceSpecification spec) {
-		for (SyncResourceSpecification existing: dynamicResources) {
-			if (existing.resource().uri().equals(spec.resource().uri())) {
-				// do nothing
-				return false;
-			}
+		if (dynamicResources.putIfAbsent(spec.resource().uri(), spec) != null) {
+			// do nothing
+			return false;
 		}
 		
-		dynamicResources.add(spec);
-		syncServer.addResource(spec);
-		syncServer.notifyResourcesListChanged();
+		for (McpSyncServer syncServer: syncServers) {
+			syncServer.addResource(spec);
+		}
 		return true;
 	}
 
 	public boolean removeResource(String uri) {
-		for (SyncResourceSpecification existing: dynamicResources) {
-			if (existing.resource().uri().equals(uri)) {
-				dynamicResources.remove(existing);
+		if (dynamicResources.remove(uri) != null) {
+			for (McpSyncServer syncServer: syncServers) {
 				syncServer.removeResource(uri);
-				syncServer.notifyResourcesListChanged();
-				return true;
 			}
+			return true;
 		}
 		
 		return false;
@@ -314,21 +559,26 @@ public class MCPServer {
 	
 	public String getContentsDescription() {
 		StringBuffer buffer = new StringBuffer();
-		buffer.append("MCP Server running on :" + this.url);
+		buffer.append("MCP Server running on :" + this.url + "/sse (HTTP with SSE), " + this.url + "/mcp (Streamable HTTP)");
 		
 		buffer.append("\nTools:");
 		
-		for (SyncToolSpecification tool: tools) {
-			if (!removedTools.contains(tool)) {
-				buffer.append("\n\t" + tool.tool().name() + ": " + tool.tool().description());
+		List<Contribution> contributions = getContributions();
+		for (Contribution contribution: contributions) {
+			for (SyncToolSpecification tool: contribution.tools()) {
+				if (toolsByName.get(tool.tool().name()) == tool && !removedTools.containsKey(tool.tool().name())) {
+					buffer.append("\n\t" + tool.tool().name() + ": " + tool.tool().description());
+				}
 			}
 		}
 		
 		buffer.append("\nResource Templates:");
-		for (SyncResourceSpecification resource: resources) {
-			if (resource.resource().uri().contains("{")) {
-				buffer.append("\n\t" + resource.resource().name() + ": " + resource.resource().description());
-				buffer.append("\n\t\t" + resource.resource().uri());
+		for (Contribution contribution: contributions) {
+			for (SyncResourceSpecification resource: contribution.resources()) {
+				if (resource.resource().uri().contains("{")) {
+					buffer.append("\n\t" + resource.resource().name() + ": " + resource.resource().description());
+					buffer.append("\n\t\t" + resource.resource().uri());
+				}
 			}
 		}
 
@@ -13,28 +13,61 @@
  *******************************************************************************/
 package org.eclipse.agents.contexts;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.agents.IFactoryProvider;
 import org.eclipse.agents.IMCPServices;
 import org.eclipse.agents.Tracer;
 import org.eclipse.osgi.service.debug.DebugTrace;
 
 import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
 
+/**
+ * Services given to one factory.  The resources the factory adds are tracked, so they can be removed
+ * with the factory.
+ */
 public class MCPServices implements IMCPServices {
 
 	MCPServer server;
+	IFactoryProvider factory;
+	Set<String> resources = ConcurrentHashMap.newKeySet();
+	boolean disposed = false;
 	
-	public MCPServices(MCPServer server) {
+	public MCPServices(MCPServer server, IFactoryProvider factory) {
 		this.server = server;
+		this.factory = factory;
+	}
+
+	void initialize() {
+		factory.initialize(this);
+	}
+
+	/**
+	 * Ignores calls made from now on
+	 * @return the uris of the resources the factory added and did not remove
+	 */
+	synchronized List<String> dispose() {
+		disposed = true;
+		List<String> added = new ArrayList<String>(resources);
+		resources.clear();
+		return added;
 	}
 
 	@Override
-	public void addResource(SyncResourceSpecification spec) {
-		server.addResource(spec);
+	public synchronized void addResource(SyncResourceSpecification spec) {
+		if (!disposed && server.addResource(spec)) {
+			resources.add(spec.resource().uri());
+		}
 	}
 
 	@Override
-	public void removeResource(String uri) {
-		server.removeResource(uri);
+	public synchronized void removeResource(String uri) {
+		if (!disposed && server.removeResource(uri)) {
+			resources.remove(uri);
+		}
 	}
 
 	@Override
@@ -43,8 +76,8 @@ public class MCPServices implements IMCPServices {
 	}
 
 	@Override
-	public boolean setToolVisibility(String toolName, boolean isVisible) {
-		return server.setVisibility(toolName, isVisible);
+	public synchronized boolean setToolVisibility(String toolName, boolean isVisible) {
+		return !disposed && server.setVisibility(toolName, isVisible);
 	}
 
 	@Override
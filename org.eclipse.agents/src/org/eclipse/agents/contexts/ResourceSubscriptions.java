@@ -0,0 +1,507 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.console.TextConsole;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+import io.modelcontextprotocol.json.TypeRef;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCMessage;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCNotification;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCRequest;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCResponse;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCResponse.JSONRPCError;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import io.modelcontextprotocol.spec.McpSchema.ResourcesUpdatedNotification;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransport;
+import io.modelcontextprotocol.spec.McpSession;
+import io.modelcontextprotocol.spec.McpStreamableServerSession;
+import io.modelcontextprotocol.spec.McpStreamableServerTransport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Subscriptions of client sessions to resources, and the notifications/resources/updated sent to them.
+ *
+ * The MCP SDK advertises subscriptions but does not handle resources/subscribe, so sessions are
+ * wrapped, on either HTTP transport, to answer subscribe and unsubscribe requests here.  Workspace
+ * resources are watched through resource deltas, and editors and consoles through their documents.
+ * An editor's document is watched again when the editor is restored or its input changes.
+ * Changes to a resource within a short window are sent as one notification, only to the sessions
+ * subscribed to it.
+ */
+class ResourceSubscriptions implements IResourceChangeListener {
+
+	private static final long WINDOW = 250;
+
+	private final MCPServer server;
+	private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<String, Subscription>();
+	private final Set<String> pending = new LinkedHashSet<String>();
+	private final Job job;
+
+	/**
+	 * The sessions subscribed to a uri, and the document watched for it if any
+	 */
+	private class Subscription implements IDocumentListener, IPartListener2 {
+
+		final String uri;
+		final Object model;
+		final Set<McpSession> sessions = ConcurrentHashMap.newKeySet();
+		volatile IDocument document;
+		volatile IWorkbenchPage page;
+
+		Subscription(String uri, Object model) {
+			this.uri = uri;
+			this.model = model;
+		}
+
+		void attach() {
+			if (model instanceof TextConsole) {
+				watch(((TextConsole)model).getDocument());
+			} else if (model instanceof IEditorReference) {
+				IEditorReference reference = (IEditorReference)model;
+				Activator.getDisplay().asyncExec(() -> {
+					if (subscriptions.get(uri) == this && reference.getPage() != null) {
+						page = reference.getPage();
+						page.addPartListener(this);
+						watch(getDocument(reference));
+					}
+				});
+			}
+		}
+
+		void detach() {
+			IWorkbenchPage watchedPage = page;
+			if (watchedPage != null) {
+				page = null;
+				Activator.getDisplay().asyncExec(() -> watchedPage.removePartListener(this));
+			}
+			watch(null);
+		}
+
+		/**
+		 * Moves the document listener from the watched document to this one, which may be null
+		 */
+		private synchronized void watch(IDocument next) {
+			IDocument watched = document;
+			if (watched == next) {
+				return;
+			}
+			if (watched != null) {
+				watched.removeDocumentListener(this);
+			}
+			document = next;
+			if (next != null) {
+				next.addDocumentListener(this);
+			}
+		}
+
+		/**
+		 * @return the document of the editor, or null for editors that are not restored yet
+		 */
+		private IDocument getDocument(IEditorReference reference) {
+			IEditorPart part = reference.getEditor(false);
+			if (part instanceof ITextEditor) {
+				ITextEditor editor = (ITextEditor)part;
+				return editor.getDocumentProvider().getDocument(editor.getEditorInput());
+			}
+			return null;
+		}
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+		}
+
+		@Override
+		public void documentChanged(DocumentEvent event) {
+			changed(uri);
+		}
+
+		@Override
+		public void partOpened(IWorkbenchPartReference reference) {
+			if (reference == model && subscriptions.get(uri) == this) {
+				watch(getDocument((IEditorReference)reference));
+			}
+		}
+
+		@Override
+		public void partVisible(IWorkbenchPartReference reference) {
+			// a lazily restored editor is created when it is first shown
+			partOpened(reference);
+		}
+
+		@Override
+		public void partInputChanged(IWorkbenchPartReference reference) {
+			if (reference == model && subscriptions.get(uri) == this) {
+				watch(getDocument((IEditorReference)reference));
+				changed(uri);
+			}
+		}
+
+		@Override
+		public void partClosed(IWorkbenchPartReference reference) {
+			if (reference == model) {
+				watch(null);
+			}
+		}
+	}
+
+	ResourceSubscriptions(MCPServer server) {
+		this.server = server;
+		this.job = new Job("Notify resource subscribers") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	synchronized void dispose() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		job.cancel();
+		for (Subscription subscription: subscriptions.values()) {
+			subscription.detach();
+		}
+		subscriptions.clear();
+	}
+
+	/**
+	 * @return a session that handles subscription requests and passes other messages to the session
+	 */
+	McpServerSession wrap(McpServerSession session, McpServerTransport transport) {
+		return new SubscribingSession(session, transport);
+	}
+
+	/**
+	 * @return a session of the Streamable HTTP transport that handles subscription requests and passes
+	 * other messages to the session
+	 */
+	McpStreamableServerSession wrap(McpStreamableServerSession session) {
+		return new SubscribingStreamableSession(session);
+	}
+
+	private static boolean isSubscription(JSONRPCRequest request) {
+		return McpSchema.METHOD_RESOURCES_SUBSCRIBE.equals(request.method()) ||
+				McpSchema.METHOD_RESOURCES_UNSUBSCRIBE.equals(request.method());
+	}
+
+	/**
+	 * Answers resources/subscribe and resources/unsubscribe for the session
+	 */
+	private JSONRPCResponse answer(JSONRPCRequest request, McpSession session) {
+		Object uri = request.params() instanceof Map ? ((Map<?, ?>)request.params()).get("uri") : null; //$NON-NLS-1$
+		if (!(uri instanceof String)) {
+			return new JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), null,
+					new JSONRPCError(McpSchema.ErrorCodes.INVALID_PARAMS, "uri is required", null)); //$NON-NLS-1$
+		}
+		try {
+			if (McpSchema.METHOD_RESOURCES_SUBSCRIBE.equals(request.method())) {
+				subscribe((String)uri, session);
+			} else {
+				unsubscribe((String)uri, session);
+			}
+			return new JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), Map.of(), null);
+		} catch (RuntimeException e) {
+			return new JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), null,
+					new JSONRPCError(McpSchema.ErrorCodes.RESOURCE_NOT_FOUND, e.getMessage(), null));
+		}
+	}
+
+	private synchronized void subscribe(String uri, McpSession session) {
+		Subscription subscription = subscriptions.get(uri);
+		if (subscription == null) {
+			IResourceTemplate<?, ?> adapter = server.getResourceTemplate(uri);
+			if (adapter == null) {
+				throw new MCPException("Unknown resource: " + uri);
+			}
+			subscription = new Subscription(uri, adapter.getModel());
+			subscriptions.put(uri, subscription);
+			subscription.attach();
+		}
+		subscription.sessions.add(session);
+	}
+
+	private synchronized void unsubscribe(String uri, McpSession session) {
+		Subscription subscription = subscriptions.get(uri);
+		if (subscription != null) {
+			subscription.sessions.remove(session);
+			if (subscription.sessions.isEmpty()) {
+				subscriptions.remove(uri);
+				subscription.detach();
+			}
+		}
+	}
+
+	private synchronized void unsubscribeAll(McpSession session) {
+		for (Subscription subscription: new ArrayList<Subscription>(subscriptions.values())) {
+			if (subscription.sessions.contains(session)) {
+				unsubscribe(subscription.uri, session);
+			}
+		}
+	}
+
+	private void changed(String uri) {
+		boolean first;
+		synchronized (pending) {
+			first = pending.isEmpty();
+			pending.add(uri);
+		}
+		if (first) {
+			job.schedule(WINDOW);
+		}
+	}
+
+	private void flush() {
+		List<String> uris;
+		synchronized (pending) {
+			uris = new ArrayList<String>(pending);
+			pending.clear();
+		}
+		for (String uri: uris) {
+			Subscription subscription = subscriptions.get(uri);
+			if (subscription != null) {
+				for (McpSession session: subscription.sessions) {
+					try {
+						session.sendNotification(McpSchema.METHOD_NOTIFICATION_RESOURCES_UPDATED,
+								new ResourcesUpdatedNotification(uri)).block();
+					} catch (RuntimeException e) {
+						Tracer.trace().trace(Tracer.MCP, "Failed to notify subscriber of " + uri, e); //$NON-NLS-1$
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null || subscriptions.isEmpty()) {
+			return;
+		}
+		for (Subscription subscription: subscriptions.values()) {
+			if (subscription.model instanceof IResource) {
+				IResource resource = (IResource)subscription.model;
+				IResourceDelta member = delta.findMember(resource.getFullPath());
+				if (member != null && isContentChange(member)) {
+					changed(subscription.uri);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return whether the delta adds or removes a resource or changes the content of a file, changes
+	 * to markers and other metadata are ignored
+	 */
+	private static boolean isContentChange(IResourceDelta delta) {
+		if (delta.getKind() != IResourceDelta.CHANGED ||
+				(delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+			return true;
+		}
+		for (IResourceDelta child: delta.getAffectedChildren()) {
+			if (isContentChange(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Answers resources/subscribe and resources/unsubscribe, and delegates everything else to the
+	 * session created by the server
+	 */
+	private class SubscribingSession extends McpServerSession {
+
+		private final McpServerSession session;
+		private final McpServerTransport transport;
+
+		SubscribingSession(McpServerSession session, McpServerTransport transport) {
+			super(session.getId(), Duration.ZERO, transport, request -> Mono.empty(), Map.of(), Map.of());
+			this.session = session;
+			this.transport = transport;
+		}
+
+		@Override
+		public Mono<Void> handle(JSONRPCMessage message) {
+			if (message instanceof JSONRPCRequest) {
+				JSONRPCRequest request = (JSONRPCRequest)message;
+				if (isSubscription(request)) {
+					return transport.sendMessage(answer(request, this));
+				}
+			}
+			return session.handle(message);
+		}
+
+		@Override
+		public String getId() {
+			return session.getId();
+		}
+
+		@Override
+		public void init(McpSchema.ClientCapabilities clientCapabilities, McpSchema.Implementation clientInfo) {
+			session.init(clientCapabilities, clientInfo);
+		}
+
+		@Override
+		public void setMinLoggingLevel(LoggingLevel minLoggingLevel) {
+			session.setMinLoggingLevel(minLoggingLevel);
+		}
+
+		@Override
+		public boolean isNotificationForLevelAllowed(LoggingLevel loggingLevel) {
+			return session.isNotificationForLevelAllowed(loggingLevel);
+		}
+
+		@Override
+		public <T> Mono<T> sendRequest(String method, Object requestParams, TypeRef<T> typeRef) {
+			return session.sendRequest(method, requestParams, typeRef);
+		}
+
+		@Override
+		public Mono<Void> sendNotification(String method, Object params) {
+			return session.sendNotification(method, params);
+		}
+
+		@Override
+		public Mono<Void> closeGracefully() {
+			unsubscribeAll(this);
+			return session.closeGracefully();
+		}
+
+		@Override
+		public void close() {
+			unsubscribeAll(this);
+			session.close();
+		}
+	}
+
+	/**
+	 * Answers resources/subscribe and resources/unsubscribe on the Streamable HTTP transport, and
+	 * delegates everything else to the session created by the server
+	 */
+	private class SubscribingStreamableSession extends McpStreamableServerSession {
+
+		private final McpStreamableServerSession session;
+
+		SubscribingStreamableSession(McpStreamableServerSession session) {
+			super(session.getId(), null, null, Duration.ZERO, Map.of(), Map.of());
+			this.session = session;
+		}
+
+		@Override
+		public Mono<Void> responseStream(JSONRPCRequest request, McpStreamableServerTransport transport) {
+			if (isSubscription(request)) {
+				return transport.sendMessage(answer(request, this)).then(transport.closeGracefully());
+			}
+			return session.responseStream(request, transport);
+		}
+
+		@Override
+		public String getId() {
+			return session.getId();
+		}
+
+		@Override
+		public void setMinLoggingLevel(LoggingLevel minLoggingLevel) {
+			session.setMinLoggingLevel(minLoggingLevel);
+		}
+
+		@Override
+		public boolean isNotificationForLevelAllowed(LoggingLevel loggingLevel) {
+			return session.isNotificationForLevelAllowed(loggingLevel);
+		}
+
+		@Override
+		public <T> Mono<T> sendRequest(String method, Object requestParams, TypeRef<T> typeRef) {
+			return session.sendRequest(method, requestParams, typeRef);
+		}
+
+		@Override
+		public Mono<Void> sendNotification(String method, Object params) {
+			return session.sendNotification(method, params);
+		}
+
+		@Override
+		public McpStreamableServerSessionStream listeningStream(McpStreamableServerTransport transport) {
+			return session.listeningStream(transport);
+		}
+
+		@Override
+		public Flux<JSONRPCMessage> replay(Object lastEventId) {
+			return session.replay(lastEventId);
+		}
+
+		@Override
+		public Mono<Void> accept(JSONRPCNotification notification) {
+			return session.accept(notification);
+		}
+
+		@Override
+		public Mono<Void> accept(JSONRPCResponse response) {
+			return session.accept(response);
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			unsubscribeAll(this);
+			return session.delete();
+		}
+
+		@Override
+		public Mono<Void> closeGracefully() {
+			unsubscribeAll(this);
+			return session.closeGracefully();
+		}
+
+		@Override
+		public void close() {
+			unsubscribeAll(this);
+			session.close();
+		}
+	}
+}
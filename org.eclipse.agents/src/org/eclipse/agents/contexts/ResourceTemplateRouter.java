@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Resolves URIs to resource template adapters.
+ *
+ * Templates are compiled and indexed by their scheme and authority when the server starts, so a
+ * URI is only matched against the adapters that can serve it.  Adapters whose model is a workspace
+ * resource are kept in a small LRU, which is cleared when resources are added, removed or moved.
+ */
+public class ResourceTemplateRouter implements IResourceChangeListener {
+
+	private static final int CACHE_SIZE = 128;
+
+	private final List<IResourceTemplate<?, ?>> adapters;
+	private final Map<String, List<IResourceTemplate<?, ?>>> routes = new HashMap<String, List<IResourceTemplate<?, ?>>>();
+
+	private final Map<String, IResourceTemplate<?, ?>> resolved = new LinkedHashMap<String, IResourceTemplate<?, ?>>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, IResourceTemplate<?, ?>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	public ResourceTemplateRouter(List<IResourceTemplate<?, ?>> adapters) {
+		this.adapters = new ArrayList<IResourceTemplate<?, ?>>(adapters);
+		for (IResourceTemplate<?, ?> adapter: this.adapters) {
+			for (String template: adapter.getTemplates()) {
+				List<IResourceTemplate<?, ?>> route = routes.computeIfAbsent(getRoute(UriTemplate.compile(template).getPrefix()),
+						key -> new ArrayList<IResourceTemplate<?, ?>>());
+				if (!route.contains(adapter)) {
+					route.add(adapter);
+				}
+			}
+		}
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	public void dispose() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		synchronized (resolved) {
+			resolved.clear();
+		}
+	}
+
+	/**
+	 * @return an adapter for the uri's model, or null if no template matches it
+	 */
+	public IResourceTemplate<?, ?> resolve(String uri) {
+		synchronized (resolved) {
+			IResourceTemplate<?, ?> adapter = resolved.get(uri);
+			if (adapter != null) {
+				return adapter;
+			}
+		}
+
+		IResourceTemplate<?, ?> template = findTemplate(uri);
+		if (template == null) {
+			return null;
+		}
+
+		IResourceTemplate<?, ?> adapter = template.fromUri(uri);
+		// other models, such as editors and consoles, are not tracked by resource deltas
+		if (adapter != null && adapter.getModel() instanceof IResource) {
+			synchronized (resolved) {
+				resolved.put(uri, adapter);
+			}
+		}
+		return adapter;
+	}
+
+	private IResourceTemplate<?, ?> findTemplate(String uri) {
+		List<IResourceTemplate<?, ?>> route = routes.get(getRoute(uri));
+		if (route != null) {
+			for (IResourceTemplate<?, ?> adapter: route) {
+				if (adapter.matches(uri)) {
+					return adapter;
+				}
+			}
+		}
+
+		// adapters may accept uris beyond their templates, such as absolute file uris
+		for (IResourceTemplate<?, ?> adapter: adapters) {
+			if ((route == null || !route.contains(adapter)) && adapter.matches(uri)) {
+				return adapter;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the scheme and authority of the uri, such as eclipse://editor
+	 */
+	private static String getRoute(String uri) {
+		int scheme = uri.indexOf("://"); //$NON-NLS-1$
+		if (scheme == -1) {
+			int colon = uri.indexOf(':');
+			return colon == -1 ? "" : uri.substring(0, colon + 1); //$NON-NLS-1$
+		}
+		int authority = uri.indexOf('/', scheme + 3);
+		return authority == -1 ? uri : uri.substring(0, authority);
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		try {
+			boolean[] structural = new boolean[] { false };
+			delta.accept(child -> {
+				if (child.getKind() == IResourceDelta.ADDED || child.getKind() == IResourceDelta.REMOVED) {
+					structural[0] = true;
+				}
+				return !structural[0];
+			});
+			if (structural[0]) {
+				synchronized (resolved) {
+					resolved.clear();
+				}
+			}
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.MCP, "Failed to visit resource delta", e); //$NON-NLS-1$
+			synchronized (resolved) {
+				resolved.clear();
+			}
+		}
+	}
+}
@@ -15,6 +15,7 @@ package org.eclipse.agents.contexts;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,14 +43,15 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 	boolean isRunning = false;
 	private ListenerList<IServerListener> serverListeners = new ListenerList<IServerListener>();
 	
-	Set<String> activityIds;
+	// the contributors whose factories the server was given
+	Set<Contributor> contributors;
 	
 	public ServerManager() {
 		
 		PlatformUI.getWorkbench().getActivitySupport().getActivityManager().addActivityManagerListener(this);
 		name = "Eclipse MCP Server";
 		description = "Default Eclipse MCP Server";
-		activityIds = new HashSet<String>();
+		contributors = new HashSet<Contributor>();
 		start();
 
 	}
@@ -62,30 +64,16 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
 		IActivityManager activites = PlatformUI.getWorkbench().getActivitySupport().getActivityManager();
 		
-		activityIds.clear();
+		contributors.clear();
 		
 		if (store.getBoolean(P_MCP_SERVER_ENABLED)) {
 			int port = store.getInt(P_MCP_SERVER_HTTP_PORT);
 			
-			Set<Contributor> contributors = new HashSet<Contributor>();
-			for (ExtensionManager.Contributor contributor: Activator.getDefault().getExtensionManager().getContributors()) {
-				if (contributor.getActivityId() == null) {
-					contributors.add(contributor);
-				} else {
-					IActivity activity = activites.getActivity(contributor.getActivityId());
-					if (activity != null && activity.isDefined() && activity.isEnabled()) {
-						contributors.add(contributor);
-						activityIds.add(activity.getId());
-					}
-				}
-			}
-			
-			List<IFactoryProvider> factories = new ArrayList<IFactoryProvider>();
-			for (Contributor contributor: contributors) {
-				factories.addAll(Arrays.asList(contributor.getFactoryProviders()));
-			}
+			contributors.addAll(getEnabledContributors(activites));
 			
-			server = new MCPServer(name, description, port, factories.toArray(IFactoryProvider[]::new));
+			// the factories of disabled contributors are known, so their completions are served once enabled
+			server = new MCPServer(name, description, port, getFactoryProviders(contributors),
+					getFactoryProviders(Arrays.asList(Activator.getDefault().getExtensionManager().getContributors())));
 			server.start();
 			isRunning = true;
 			
@@ -128,40 +116,87 @@ public class ServerManager implements IPreferenceConstants, IActivityManagerList
 	}
 	
 	public IResourceTemplate<?, ?> getResourceTemplate(String uri) {
-		return server.getResourceTemplate(uri);
+		return server == null ? null : server.getResourceTemplate(uri);
+	}
+
+	/**
+	 * @return the contributors without an activity, or whose activity is enabled
+	 */
+	private Set<Contributor> getEnabledContributors(IActivityManager activites) {
+		Set<Contributor> enabled = new HashSet<Contributor>();
+		for (ExtensionManager.Contributor contributor: Activator.getDefault().getExtensionManager().getContributors()) {
+			if (contributor.getActivityId() == null) {
+				enabled.add(contributor);
+			} else {
+				IActivity activity = activites.getActivity(contributor.getActivityId());
+				if (activity != null && activity.isDefined() && activity.isEnabled()) {
+					enabled.add(contributor);
+				}
+			}
+		}
+		return enabled;
+	}
+	
+	private static IFactoryProvider[] getFactoryProviders(Collection<Contributor> contributors) {
+		List<IFactoryProvider> factories = new ArrayList<IFactoryProvider>();
+		for (Contributor contributor: contributors) {
+			factories.addAll(Arrays.asList(contributor.getFactoryProviders()));
+		}
+		return factories.toArray(IFactoryProvider[]::new);
 	}
 
+	/**
+	 * Adds and removes the factories of the contributors whose activities were enabled or disabled,
+	 * the server keeps running and clients stay connected
+	 */
 	@Override
 	public void activityManagerChanged(ActivityManagerEvent event) {
-		if (event.haveEnabledActivityIdsChanged()) {
-			for (String oldActivityId: event.getPreviouslyEnabledActivityIds()) {
-				if (!event.getActivityManager().getEnabledActivityIds().contains(oldActivityId)) {
-					// oldActivityId was disabled/removed
-					if (activityIds.contains(oldActivityId)) {
-						Tracer.trace().trace(Tracer.MCP, "Activity Disabled: " + oldActivityId); //$NON-NLS-1$
-						forceRestart();
-						return;
-					}
-				}
+		if (!event.haveEnabledActivityIdsChanged() || !isRunning()) {
+			return;
+		}
+		
+		Set<Contributor> enabled = getEnabledContributors(event.getActivityManager());
+		List<Contributor> removed = new ArrayList<Contributor>();
+		for (Contributor contributor: contributors) {
+			if (!enabled.contains(contributor)) {
+				Tracer.trace().trace(Tracer.MCP, "Activity Disabled: " + contributor.getActivityId()); //$NON-NLS-1$
+				removed.add(contributor);
 			}
-			
-			
-			for (String newActivityId: event.getActivityManager().getEnabledActivityIds()) {
-				if (!event.getPreviouslyEnabledActivityIds().contains(newActivityId)) {
-					// newctivityId was enabled/added
-					if (!activityIds.contains(newActivityId)) {
-						Tracer.trace().trace(Tracer.MCP, "Activity Enabled: " + newActivityId); //$NON-NLS-1$
-						forceRestart();
-						return;
-					}
-				}
+		}
+		List<Contributor> added = new ArrayList<Contributor>();
+		for (Contributor contributor: enabled) {
+			if (!contributors.contains(contributor)) {
+				Tracer.trace().trace(Tracer.MCP, "Activity Enabled: " + contributor.getActivityId()); //$NON-NLS-1$
+				added.add(contributor);
 			}
 		}
+		if (removed.isEmpty() && added.isEmpty()) {
+			return;
+		}
+		
+		// completions are only registered when the server is built
+		if (!server.removeFactories(getFactoryProviders(removed)) || !server.addFactories(getFactoryProviders(added))) {
+			forceRestart();
+			return;
+		}
+		contributors.removeAll(removed);
+		contributors.addAll(added);
+		
+		for (IServerListener listener: serverListeners) {
+			listener.serverChanged(server.getContentsDescription());
+		}
 	}
 	
 	public interface IServerListener {
 		public void serverStarted(String contents);
 		public void serverStopped();
+		
+		/**
+		 * Called when contributors are added to or removed from the running server
+		 */
+		public default void serverChanged(String contents) {
+			serverStarted(contents);
+		}
 	}
 	
 	public void addServerListener(IServerListener listener) {
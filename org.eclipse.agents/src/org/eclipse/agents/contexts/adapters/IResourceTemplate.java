@@ -14,7 +14,6 @@
 package org.eclipse.agents.contexts.adapters;
 
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 public interface IResourceTemplate<T, U> extends IResourceAdapter<U> {
 
@@ -34,7 +33,7 @@ public interface IResourceTemplate<T, U> extends IResourceAdapter<U> {
 	
 	public default boolean matches(String uri) {
 		for (String template: getTemplates()) {
-			if (new DefaultMcpUriTemplateManager(template).matches(uri)) {
+			if (UriTemplate.compile(template).matches(uri)) {
 				return true;
 			}
 		}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.adapters;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A URI template compiled once into a pattern, such as file://workspace/{relativePath}.
+ *
+ * Each variable matches a single path segment, as with DefaultMcpUriTemplateManager.
+ * Templates are compiled on first use and shared, so adapters can look them up per call.
+ */
+public class UriTemplate {
+
+	private static final Pattern VARIABLE = Pattern.compile("\\{([^/]+?)\\}"); //$NON-NLS-1$
+	private static final Map<String, UriTemplate> compiled = new ConcurrentHashMap<String, UriTemplate>();
+
+	private final String template;
+	private final String prefix;
+	private final Pattern pattern;
+	private final String[] variables;
+
+	public static UriTemplate compile(String template) {
+		return compiled.computeIfAbsent(template, UriTemplate::new);
+	}
+
+	private UriTemplate(String template) {
+		this.template = template;
+
+		List<String> names = new ArrayList<String>();
+		StringBuilder regex = new StringBuilder("^"); //$NON-NLS-1$
+		Matcher matcher = VARIABLE.matcher(template);
+		int end = 0;
+		while (matcher.find()) {
+			if (matcher.start() > end) {
+				regex.append(Pattern.quote(template.substring(end, matcher.start())));
+			}
+			regex.append("([^/]+)"); //$NON-NLS-1$
+			names.add(matcher.group(1));
+			end = matcher.end();
+		}
+		if (end < template.length()) {
+			regex.append(Pattern.quote(template.substring(end)));
+		}
+		regex.append("$"); //$NON-NLS-1$
+
+		int brace = template.indexOf('{');
+		this.prefix = brace == -1 ? template : template.substring(0, brace);
+		this.pattern = Pattern.compile(regex.toString());
+		this.variables = names.toArray(String[]::new);
+	}
+
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @return the literal text before the first variable
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
+	public boolean matches(String uri) {
+		return uri.startsWith(prefix) && pattern.matcher(uri).matches();
+	}
+
+	/**
+	 * @return the values of the template's variables by name, or null if the uri does not match
+	 */
+	public Map<String, String> extract(String uri) {
+		if (!uri.startsWith(prefix)) {
+			return null;
+		}
+		Matcher matcher = pattern.matcher(uri);
+		if (!matcher.matches()) {
+			return null;
+		}
+		Map<String, String> values = new HashMap<String, String>();
+		for (int i = 0; i < variables.length; i++) {
+			values.put(variables[i], matcher.group(i + 1));
+		}
+		return values;
+	}
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IFileEditorInput;
+import org.eclipse.ui.IPageListener;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IPropertyListener;
+import org.eclipse.ui.IWindowListener;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+/**
+ * Index of instantiated text editors by the file system location of their input.
+ *
+ * The index installs its own window, page and part listeners the first time it is used, so it
+ * does not depend on the MCP server or any of its contributors.  Lookups never walk the workbench
+ * or restore lazily loaded editors, and may be made from any thread.  Without a workbench to
+ * listen to, lookups fall back to the editor references of every page.
+ */
+public class EditorIndex {
+
+	private static final EditorIndex instance = new EditorIndex();
+
+	private final Map<IPath, ITextEditor> editors = new ConcurrentHashMap<IPath, ITextEditor>();
+	private final Map<ITextEditor, IPath> locations = new ConcurrentHashMap<ITextEditor, IPath>();
+	private volatile boolean started = false;
+
+	private final IPropertyListener inputListener = (source, propId) -> {
+		if (propId == IEditorPart.PROP_INPUT && source instanceof ITextEditor) {
+			add((ITextEditor)source);
+		}
+	};
+
+	private final IPartListener2 partListener = new IPartListener2() {
+		@Override
+		public void partOpened(IWorkbenchPartReference reference) {
+			if (reference.getPart(false) instanceof ITextEditor) {
+				add((ITextEditor)reference.getPart(false));
+			}
+		}
+
+		@Override
+		public void partClosed(IWorkbenchPartReference reference) {
+			if (reference.getPart(false) instanceof ITextEditor) {
+				remove((ITextEditor)reference.getPart(false));
+			}
+		}
+	};
+
+	private final IPageListener pageListener = new IPageListener() {
+		@Override
+		public void pageOpened(IWorkbenchPage page) {
+			addListeners(page);
+		}
+
+		@Override
+		public void pageClosed(IWorkbenchPage page) {
+			page.removePartListener(partListener);
+		}
+
+		@Override
+		public void pageActivated(IWorkbenchPage page) {
+		}
+	};
+
+	private final IWindowListener windowListener = new IWindowListener() {
+		@Override
+		public void windowOpened(IWorkbenchWindow window) {
+			addListeners(window);
+		}
+
+		@Override
+		public void windowClosed(IWorkbenchWindow window) {
+			window.removePageListener(pageListener);
+		}
+
+		@Override
+		public void windowActivated(IWorkbenchWindow window) {
+		}
+
+		@Override
+		public void windowDeactivated(IWorkbenchWindow window) {
+		}
+	};
+
+	public static EditorIndex instance() {
+		return instance;
+	}
+
+	private EditorIndex() {
+	}
+
+	/**
+	 * Installs the listeners on the UI thread, and indexes the editors that are already instantiated
+	 */
+	public void start() {
+		if (!started) {
+			Activator.getDisplay().asyncExec(this::install);
+		}
+	}
+
+	private synchronized void install() {
+		if (started || !PlatformUI.isWorkbenchRunning()) {
+			return;
+		}
+		started = true;
+
+		IWorkbench workbench = PlatformUI.getWorkbench();
+		workbench.addWindowListener(windowListener);
+		for (IWorkbenchWindow window: workbench.getWorkbenchWindows()) {
+			addListeners(window);
+		}
+		Tracer.trace().trace(Tracer.PLATFORM, "Indexing text editors"); //$NON-NLS-1$
+	}
+
+	private void addListeners(IWorkbenchWindow window) {
+		window.addPageListener(pageListener);
+		for (IWorkbenchPage page: window.getPages()) {
+			addListeners(page);
+		}
+	}
+
+	private void addListeners(IWorkbenchPage page) {
+		page.addPartListener(partListener);
+		for (IEditorReference reference: page.getEditorReferences()) {
+			// editors that are not restored yet are indexed when partOpened fires
+			if (reference.getEditor(false) instanceof ITextEditor) {
+				add((ITextEditor)reference.getEditor(false));
+			}
+		}
+	}
+
+	private void add(ITextEditor editor) {
+		IPath previous = locations.remove(editor);
+		if (previous != null) {
+			editors.remove(previous, editor);
+		}
+
+		IPath location = getLocation(editor);
+		if (location != null) {
+			editors.put(location, editor);
+			locations.put(editor, location);
+		}
+		editor.addPropertyListener(inputListener);
+	}
+
+	private void remove(ITextEditor editor) {
+		editor.removePropertyListener(inputListener);
+		IPath location = locations.remove(editor);
+		if (location != null) {
+			editors.remove(location, editor);
+		}
+	}
+
+	/**
+	 * @return the instantiated text editor open on the file at this location, or null
+	 */
+	public ITextEditor get(IPath absolutePath) {
+		if (!started) {
+			Activator.getDisplay().syncExec(this::install);
+		}
+		if (started) {
+			return editors.get(absolutePath);
+		}
+
+		ITextEditor[] found = new ITextEditor[1];
+		Activator.getDisplay().syncExec(() -> found[0] = find(absolutePath));
+		return found[0];
+	}
+
+	/**
+	 * Walks the editor references of every page, on the UI thread
+	 */
+	private ITextEditor find(IPath absolutePath) {
+		if (!PlatformUI.isWorkbenchRunning()) {
+			return null;
+		}
+		for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
+			for (IWorkbenchPage page: window.getPages()) {
+				for (IEditorReference reference: page.getEditorReferences()) {
+					IEditorPart part = reference.getEditor(false);
+					if (part instanceof ITextEditor && absolutePath.equals(getLocation((ITextEditor)part))) {
+						return (ITextEditor)part;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private IPath getLocation(ITextEditor editor) {
+		IEditorInput input = editor.getEditorInput();
+		if (input instanceof IFileEditorInput) {
+			return ((IFileEditorInput)input).getFile().getRawLocation();
+		}
+		return null;
+	}
+}
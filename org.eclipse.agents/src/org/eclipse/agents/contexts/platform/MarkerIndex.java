@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.platform.resource.MarkerAdapter;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Marker;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SEVERITY;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TYPE;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Index of the workspace's problem and task markers, ordered by marker id.
+ *
+ * The workspace is searched once, on the first query, and the index is then kept current by
+ * marker deltas, so queries never walk the workspace or read marker attributes.  Markers are
+ * converted when they are added or changed, with links that do not stat their file.
+ *
+ * Marker ids grow as markers are created, so the last id of a page is a cursor that stays valid
+ * while markers are added and removed.
+ */
+public class MarkerIndex implements IResourceChangeListener {
+
+	/**
+	 * Number of markers returned by a query when no limit is given
+	 */
+	public static final int PAGE_SIZE = 500;
+
+	private static final MarkerIndex instance = new MarkerIndex();
+
+	private static final String[] MARKER_TYPES = { IMarker.PROBLEM, IMarker.TASK };
+
+	private record Entry(IPath path, Marker marker) {
+	}
+
+	/**
+	 * @param markers the markers of the page
+	 * @param nextCursor the cursor of the next page, or null if this is the last page
+	 */
+	public record Page(Marker[] markers, String nextCursor) {
+	}
+
+	private final NavigableMap<Long, Entry> entries = new ConcurrentSkipListMap<Long, Entry>();
+	private boolean loaded = false;
+
+	public static MarkerIndex instance() {
+		return instance;
+	}
+
+	private MarkerIndex() {
+	}
+
+	/**
+	 * @param type Problem or Task
+	 * @param resource the resource the markers are on or under
+	 * @param minimum the lowest severity to include, or null for all markers
+	 * @param cursor the nextCursor of the previous page, or null for the first page
+	 * @param limit the maximum number of markers in the page
+	 */
+	public Page find(TYPE type, IResource resource, SEVERITY minimum, String cursor, int limit) {
+		load();
+
+		Map<Long, Entry> range = entries;
+		if (cursor != null && !cursor.isEmpty()) {
+			try {
+				range = entries.tailMap(Long.parseLong(cursor), false);
+			} catch (NumberFormatException e) {
+				throw new MCPException("Invalid cursor: " + cursor);
+			}
+		}
+
+		IPath path = resource.getFullPath();
+		List<Marker> markers = new ArrayList<Marker>();
+		for (Map.Entry<Long, Entry> entry: range.entrySet()) {
+			Marker marker = entry.getValue().marker();
+			if (type.equals(marker.type()) && path.isPrefixOf(entry.getValue().path()) &&
+					MarkerAdapter.isAtLeast(marker.severity(), minimum)) {
+				if (markers.size() == limit) {
+					return new Page(markers.toArray(Marker[]::new), Long.toString(markers.get(limit - 1).id()));
+				}
+				markers.add(marker);
+			}
+		}
+		return new Page(markers.toArray(Marker[]::new), null);
+	}
+
+	/**
+	 * Stops tracking markers, the index is reloaded by the next query
+	 */
+	public synchronized void dispose() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		entries.clear();
+		loaded = false;
+	}
+
+	private synchronized void load() {
+		if (loaded) {
+			return;
+		}
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		// notifications wait for the load to end, deltas it already saw are applied again harmlessly
+		workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		try {
+			addAll(workspace.getRoot());
+			loaded = true;
+		} catch (CoreException e) {
+			workspace.removeResourceChangeListener(this);
+			entries.clear();
+			throw new MCPException(e);
+		}
+	}
+
+	private void addAll(IResource resource) throws CoreException {
+		for (String markerType: MARKER_TYPES) {
+			for (IMarker marker: resource.findMarkers(markerType, true, IResource.DEPTH_INFINITE)) {
+				add(marker);
+			}
+		}
+	}
+
+	private void add(IMarker marker) {
+		try {
+			entries.put(marker.getId(), new Entry(marker.getResource().getFullPath(), new MarkerAdapter(marker).toJson()));
+		} catch (MCPException e) {
+			// deleted since it was reported
+			entries.remove(marker.getId());
+		}
+	}
+
+	@Override
+	public synchronized void resourceChanged(IResourceChangeEvent event) {
+		if (!loaded) {
+			return;
+		}
+		try {
+			// markers of projects that are closed or opened are not always reported as marker deltas
+			IResourceDelta delta = event.getDelta();
+			if (delta != null) {
+				for (IResourceDelta child: delta.getAffectedChildren()) {
+					if (child.getKind() == IResourceDelta.REMOVED || (child.getFlags() & IResourceDelta.OPEN) != 0) {
+						IPath path = child.getResource().getFullPath();
+						entries.values().removeIf(entry -> path.isPrefixOf(entry.path()));
+						if (child.getResource().isAccessible()) {
+							addAll(child.getResource());
+						}
+					}
+				}
+			}
+
+			for (IMarkerDelta markerDelta: event.findMarkerDeltas(null, true)) {
+				if (markerDelta.getKind() == IResourceDelta.REMOVED) {
+					entries.remove(markerDelta.getId());
+				} else if (markerDelta.isSubtypeOf(IMarker.PROBLEM) || markerDelta.isSubtypeOf(IMarker.TASK)) {
+					add(markerDelta.getMarker());
+				}
+			}
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.MCP, "Failed to update marker index, reloading it", e); //$NON-NLS-1$
+			entries.clear();
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+			loaded = false;
+		}
+	}
+}
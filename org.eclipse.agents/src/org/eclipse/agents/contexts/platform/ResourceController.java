@@ -125,6 +125,8 @@ public class ResourceController  {
 			
 		};
 		
+		WorkbenchState.instance().start();
+
 		PlatformUI.getWorkbench().addWindowListener(windowListener);
 		for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
 			window.addPageListener(pageListener);
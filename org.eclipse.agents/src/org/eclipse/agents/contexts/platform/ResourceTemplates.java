@@ -17,7 +17,11 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import org.eclipse.agents.MCPException;
+import org.eclipse.agents.contexts.platform.resource.ConsoleAdapter;
+import org.eclipse.agents.contexts.platform.resource.ContentRange;
 import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
 import org.eclipse.core.resources.IContainer;
@@ -42,9 +46,16 @@ import org.springaicommunity.mcp.annotation.McpResource;
 import io.modelcontextprotocol.spec.McpSchema.CompleteRequest;
 import io.modelcontextprotocol.spec.McpSchema.CompleteRequest.CompleteArgument;
 import io.modelcontextprotocol.spec.McpSchema.CompleteRequest.CompleteContext;
+import io.modelcontextprotocol.spec.McpSchema.ReadResourceRequest;
+import io.modelcontextprotocol.spec.McpSchema.ReadResourceResult;
+import io.modelcontextprotocol.spec.McpSchema.TextResourceContents;
 
 public class ResourceTemplates {
 
+	private static final String RANGE_DESCRIPTION =
+			"Append ?line=N&lines=M to read M lines from line N (from 0). " +
+			"Reads are capped at " + ContentRange.MAX_CHARS + " characters, a capped read has a nextUri in its _meta that reads the rest.";
+
 	public ResourceTemplates() {
 		
 	}
@@ -80,16 +91,48 @@ public class ResourceTemplates {
     @McpResource (
     		uri = "file://workspace/{project}/{projectRelativePath}",
     		name = "Eclipse Workspace File",
-    		description = "Content of an file in an Eclipse workspace")
-    public String getWorkspaceFileContent(String project, String projectRelativePath) {
+    		description = "Content of an file in an Eclipse workspace. " + RANGE_DESCRIPTION)
+    public ReadResourceResult getWorkspaceFileContent(ReadResourceRequest request, String project, String projectRelativePath) {
+    	
+    	// the range is passed as a query on the last variable
+    	ContentRange range = ContentRange.parse(ContentRange.getQuery(projectRelativePath));
+    	projectRelativePath = ContentRange.stripQuery(projectRelativePath);
     	
     	// condense from 2 variables to 1 variable
     	String uri = "file://workspace/" + 
     			URLEncoder.encode(project + "/" + projectRelativePath, StandardCharsets.UTF_8);
     	WorkspaceResourceAdapter adapter = new WorkspaceResourceAdapter(uri);
-    	return adapter.toContent();
+    	ContentRange.Content content = adapter.toContent(range);
+    	if (content == null) {
+    		throw new MCPException("Not a file: " + request.uri());
+    	}
+    	return toResult(request.uri(), range, content);
 	}
     
+    @McpResource (
+    		uri = "eclipse://console/{name}",
+    		name = "Eclipse IDE Console",
+    		description = "Content of an Eclipse IDE console. " + RANGE_DESCRIPTION)
+    public ReadResourceResult getConsoleContent(ReadResourceRequest request, String name) {
+    	ContentRange range = ContentRange.parse(ContentRange.getQuery(name));
+    	ConsoleAdapter adapter = new ConsoleAdapter(request.uri());
+    	return toResult(request.uri(), range, adapter.toContent(range));
+    }
+    
+    /**
+     * @return the content, with the uri reading the rest of it in the meta data when it was capped
+     */
+    private ReadResourceResult toResult(String uri, ContentRange range, ContentRange.Content content) {
+    	Map<String, Object> meta = null;
+    	if (content.isTruncated()) {
+    		meta = Map.of(
+    				ContentRange.CURSOR, content.nextCursor(),
+    				"nextUri", range.toNextUri(uri, content.nextCursor()));
+    	}
+    	TextResourceContents contents = new TextResourceContents(uri, "text/plain", content.text(), meta);
+    	return new ReadResourceResult(List.of(contents));
+    }
+    
     @McpComplete(uri = "file://workspace/{project}/{projectRelativePath}")
    	public List<String> completeRelativePath(CompleteRequest request) {
     	
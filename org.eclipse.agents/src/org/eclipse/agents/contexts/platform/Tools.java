@@ -17,7 +17,6 @@ package org.eclipse.agents.contexts.platform;
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
-import org.eclipse.agents.contexts.platform.resource.ConsoleAdapter;
 import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
 import org.eclipse.agents.contexts.platform.resource.MarkerAdapter;
 import org.eclipse.agents.contexts.platform.resource.WorkspaceResourceAdapter;
@@ -27,6 +26,7 @@ import org.eclipse.agents.contexts.platform.resource.ResourceSchema.DEPTH;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editors;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.File;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Problems;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.SEVERITY;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Tasks;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextEditorSelection;
 import org.eclipse.core.resources.IFile;
@@ -51,11 +51,9 @@ public class Tools {
 					title = "Currrent Selection"))
 	public TextEditorSelection currentSelection() {
 		
-		
-		IEditorPart activePart = EditorAdapter.getActiveEditor();
-		if (activePart != null) {
-			EditorAdapter adapter = new EditorAdapter().fromEditorName(activePart.getTitle());
-			return adapter.getEditorSelection();
+		WorkbenchState.Snapshot snapshot = WorkbenchState.instance().getSnapshot();
+		if (snapshot.activeEditor() != null) {
+			return new TextEditorSelection(snapshot.activeEditor(), snapshot.selection());
 		}
 
 		return null;
@@ -75,7 +73,7 @@ public class Tools {
 					title = "List Consoles"))
 	public Consoles listConsoles() {
 
-		return ConsoleAdapter.getConsoles();
+		return new Consoles(WorkbenchState.instance().getSnapshot().consoles());
 	}
 
 	@McpTool(name = "listProjects", 
@@ -342,24 +340,35 @@ public class Tools {
 				description = "Eclipse workspace file or editor URI")
 				String resourceURI,
 			@McpToolParam(
-				description = "One of ERROR, INFO or WARNING. Default i", 
+				description = "Lowest severity to list, one of ERROR, WARNING or INFO. Default is INFO, listing all problems", 
+				required = false) 
+				String severity,
+			@McpToolParam(
+				description = "nextCursor of a previous result, to list its next page", 
 				required = false) 
-				String severity) {
+				String cursor) {
 
-		//TODO severity
+		SEVERITY minimum = null;
+		if (severity != null && !severity.isEmpty()) {
+			try {
+				minimum = SEVERITY.valueOf(severity.toUpperCase());
+			} catch (IllegalArgumentException e) {
+				throw new MCPException("Severity must be one of ERROR, WARNING or INFO");
+			}
+		}
 
 		if (resourceURI == null || resourceURI.isEmpty()) {
-			return MarkerAdapter.getProblems(ResourcesPlugin.getWorkspace().getRoot());
+			return MarkerAdapter.getProblems(ResourcesPlugin.getWorkspace().getRoot(), minimum, cursor, MarkerIndex.PAGE_SIZE);
 		} else {
 			IResourceTemplate<?, ?> adapter = Activator.getDefault().getServerManager().getResourceTemplate(resourceURI);
 			if (adapter instanceof WorkspaceResourceAdapter) {
-				return MarkerAdapter.getProblems(((WorkspaceResourceAdapter)adapter).getModel());
+				return MarkerAdapter.getProblems(((WorkspaceResourceAdapter)adapter).getModel(), minimum, cursor, MarkerIndex.PAGE_SIZE);
 			} else if (adapter instanceof EditorAdapter) {
 				IEditorReference reference = ((EditorAdapter)adapter).getModel();
 				IEditorPart part = reference.getEditor(true);
 				if (part != null) {
 					if (part instanceof ITextEditor) {
-						return MarkerAdapter.getProblems((ITextEditor)part);
+						return MarkerAdapter.getProblems((ITextEditor)part, minimum);
 					} else {
 						throw new MCPException("Editor is not a text editor");
 					}
@@ -378,14 +387,17 @@ public class Tools {
 	public Tasks listTasks(
 			@McpToolParam(description = "Eclipse workspace file or editor URI", 
 			required = false) 
-			String resourceURI) {
+			String resourceURI,
+			@McpToolParam(description = "nextCursor of a previous result, to list its next page", 
+			required = false) 
+			String cursor) {
 
 		if (resourceURI == null || resourceURI.isEmpty()) {
-			return MarkerAdapter.getTasks(ResourcesPlugin.getWorkspace().getRoot());
+			return MarkerAdapter.getTasks(ResourcesPlugin.getWorkspace().getRoot(), cursor, MarkerIndex.PAGE_SIZE);
 		} else {
 			IResourceTemplate<?, ?> adapter = Activator.getDefault().getServerManager().getResourceTemplate(resourceURI);
 			if (adapter instanceof WorkspaceResourceAdapter) {
-				return MarkerAdapter.getTasks(((WorkspaceResourceAdapter)adapter).getModel());
+				return MarkerAdapter.getTasks(((WorkspaceResourceAdapter)adapter).getModel(), cursor, MarkerIndex.PAGE_SIZE);
 			} else if (adapter instanceof EditorAdapter) {
 				IEditorReference reference = ((EditorAdapter)adapter).getModel();
 				IEditorPart part = reference.getEditor(true);
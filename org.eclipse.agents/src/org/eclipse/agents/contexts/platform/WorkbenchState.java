@@ -0,0 +1,433 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
+import org.eclipse.agents.contexts.platform.resource.ConsoleAdapter;
+import org.eclipse.agents.contexts.platform.resource.EditorAdapter;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Console;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editor;
+import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextSelection;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IPageListener;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IPropertyListener;
+import org.eclipse.ui.ISelectionListener;
+import org.eclipse.ui.IWindowListener;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.IWorkbenchPartConstants;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.console.ConsolePlugin;
+import org.eclipse.ui.console.IConsole;
+import org.eclipse.ui.console.IConsoleListener;
+
+/**
+ * Immutable, versioned snapshots of the workbench state that MCP tools report: the open editors,
+ * the active editor and its selection, and the consoles.
+ *
+ * Snapshots are rebuilt on the UI thread by part, page, window, selection, dirty state and console
+ * listeners, and published through a volatile field, so tools read them from server threads
+ * without waiting on the UI thread.  Editors are only described again when an event concerns them,
+ * and their links leave out the document size, which changes with every keystroke.
+ */
+public class WorkbenchState {
+
+	private static final WorkbenchState instance = new WorkbenchState();
+
+	private static final Snapshot EMPTY = new Snapshot(0, new Editor[0], null, null, new Console[0], Map.of(), Map.of());
+
+	/**
+	 * @param version incremented with each published snapshot
+	 * @param editors the open editors, in the order of their windows and pages
+	 * @param activeEditor the active editor of the last active window, or null
+	 * @param selection the text selected in the active editor, or null
+	 * @param consoles the open consoles
+	 * @param references the editors' references by name
+	 * @param descriptions the editors by reference
+	 */
+	public record Snapshot(long version, Editor[] editors, Editor activeEditor, TextSelection selection,
+			Console[] consoles, Map<String, IEditorReference> references, Map<IEditorReference, Editor> descriptions) {
+	}
+
+	private volatile Snapshot snapshot;
+	private long version = 0;
+	private volatile boolean started = false;
+
+	private Editor[] editors = new Editor[0];
+	private Editor activeEditor;
+	private TextSelection selection;
+	private Console[] consoles = new Console[0];
+	private Map<String, IEditorReference> references = Map.of();
+	private Map<IEditorReference, Editor> descriptions = Map.of();
+	private IWorkbenchWindow activeWindow;
+
+	// descriptions of the editors, kept across snapshots until an event concerns their editor
+	private final Map<IEditorReference, Editor> described = new HashMap<IEditorReference, Editor>();
+
+	private final IPropertyListener propertyListener = (source, propId) -> {
+		if (propId == IWorkbenchPartConstants.PROP_DIRTY || propId == IWorkbenchPartConstants.PROP_TITLE ||
+				propId == IWorkbenchPartConstants.PROP_INPUT) {
+			updateEditor(source instanceof IEditorReference ? (IEditorReference)source : null);
+		}
+	};
+
+	private final IPartListener2 partListener = new IPartListener2() {
+		@Override
+		public void partOpened(IWorkbenchPartReference reference) {
+			if (reference instanceof IEditorReference) {
+				reference.addPropertyListener(propertyListener);
+				updateEditors();
+			}
+		}
+
+		@Override
+		public void partClosed(IWorkbenchPartReference reference) {
+			if (reference instanceof IEditorReference) {
+				reference.removePropertyListener(propertyListener);
+				updateEditors();
+			}
+		}
+
+		@Override
+		public void partActivated(IWorkbenchPartReference reference) {
+			if (reference instanceof IEditorReference) {
+				updateEditors();
+			}
+		}
+
+		@Override
+		public void partInputChanged(IWorkbenchPartReference reference) {
+			if (reference instanceof IEditorReference) {
+				updateEditor((IEditorReference)reference);
+			}
+		}
+	};
+
+	private final ISelectionListener selectionListener = (IWorkbenchPart part, ISelection selection) -> {
+		if (part instanceof IEditorPart && part == getActiveEditor()) {
+			updateSelection();
+		}
+	};
+
+	private final IPageListener pageListener = new IPageListener() {
+		@Override
+		public void pageOpened(IWorkbenchPage page) {
+			addListeners(page);
+			updateEditors();
+		}
+
+		@Override
+		public void pageClosed(IWorkbenchPage page) {
+			removeListeners(page);
+			updateEditors();
+		}
+
+		@Override
+		public void pageActivated(IWorkbenchPage page) {
+			updateEditors();
+		}
+	};
+
+	private final IWindowListener windowListener = new IWindowListener() {
+		@Override
+		public void windowOpened(IWorkbenchWindow window) {
+			addListeners(window);
+			updateEditors();
+		}
+
+		@Override
+		public void windowClosed(IWorkbenchWindow window) {
+			window.removePageListener(pageListener);
+			window.getSelectionService().removePostSelectionListener(selectionListener);
+			if (window == activeWindow) {
+				activeWindow = null;
+			}
+			updateEditors();
+		}
+
+		@Override
+		public void windowActivated(IWorkbenchWindow window) {
+			activeWindow = window;
+			updateEditors();
+		}
+
+		@Override
+		public void windowDeactivated(IWorkbenchWindow window) {
+			// the last active window is reported until another one is activated
+		}
+	};
+
+	private final IConsoleListener consoleListener = new IConsoleListener() {
+		@Override
+		public void consolesAdded(IConsole[] added) {
+			updateConsoles();
+		}
+
+		@Override
+		public void consolesRemoved(IConsole[] removed) {
+			updateConsoles();
+		}
+	};
+
+	public static WorkbenchState instance() {
+		return instance;
+	}
+
+	private WorkbenchState() {
+	}
+
+	/**
+	 * Installs the listeners on the UI thread, the first snapshot is published once they are
+	 */
+	public void start() {
+		Activator.getDisplay().asyncExec(this::install);
+	}
+
+	/**
+	 * @return the latest snapshot, the first one is built on the UI thread if it is not published yet,
+	 * and an empty one is returned without a workbench
+	 */
+	public Snapshot getSnapshot() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			Activator.getDisplay().syncExec(this::install);
+			current = snapshot;
+		}
+		return current == null ? EMPTY : current;
+	}
+
+	private synchronized void install() {
+		if (started || !PlatformUI.isWorkbenchRunning()) {
+			return;
+		}
+		started = true;
+
+		IWorkbench workbench = PlatformUI.getWorkbench();
+		workbench.addWindowListener(windowListener);
+		for (IWorkbenchWindow window: workbench.getWorkbenchWindows()) {
+			addListeners(window);
+		}
+		activeWindow = workbench.getActiveWorkbenchWindow();
+		ConsolePlugin.getDefault().getConsoleManager().addConsoleListener(consoleListener);
+
+		Tracer.trace().trace(Tracer.PLATFORM, "Tracking workbench state"); //$NON-NLS-1$
+		updateConsoles();
+		updateEditors();
+	}
+
+	/**
+	 * Removes the listeners installed by {@link #start()}, on the UI thread.  The next snapshot
+	 * requested installs them again.
+	 */
+	public void stop() {
+		if (started) {
+			Activator.getDisplay().asyncExec(this::uninstall);
+		}
+	}
+
+	private synchronized void uninstall() {
+		if (!started) {
+			return;
+		}
+		started = false;
+
+		if (PlatformUI.isWorkbenchRunning()) {
+			IWorkbench workbench = PlatformUI.getWorkbench();
+			workbench.removeWindowListener(windowListener);
+			for (IWorkbenchWindow window: workbench.getWorkbenchWindows()) {
+				window.removePageListener(pageListener);
+				window.getSelectionService().removePostSelectionListener(selectionListener);
+				for (IWorkbenchPage page: window.getPages()) {
+					removeListeners(page);
+				}
+			}
+		}
+		ConsolePlugin.getDefault().getConsoleManager().removeConsoleListener(consoleListener);
+
+		Tracer.trace().trace(Tracer.PLATFORM, "Stopped tracking workbench state"); //$NON-NLS-1$
+		activeWindow = null;
+		described.clear();
+		editors = new Editor[0];
+		activeEditor = null;
+		selection = null;
+		consoles = new Console[0];
+		references = Map.of();
+		descriptions = Map.of();
+		snapshot = null;
+	}
+
+	private void addListeners(IWorkbenchWindow window) {
+		window.addPageListener(pageListener);
+		window.getSelectionService().addPostSelectionListener(selectionListener);
+		for (IWorkbenchPage page: window.getPages()) {
+			addListeners(page);
+		}
+	}
+
+	private void addListeners(IWorkbenchPage page) {
+		page.addPartListener(partListener);
+		for (IEditorReference reference: page.getEditorReferences()) {
+			reference.addPropertyListener(propertyListener);
+		}
+	}
+
+	private void removeListeners(IWorkbenchPage page) {
+		page.removePartListener(partListener);
+		for (IEditorReference reference: page.getEditorReferences()) {
+			reference.removePropertyListener(propertyListener);
+		}
+	}
+
+	/**
+	 * @return the active editor of the last active window, must be called on the UI thread
+	 */
+	private IEditorPart getActiveEditor() {
+		IWorkbenchWindow window = activeWindow;
+		if (window == null || window.getShell() == null || window.getShell().isDisposed()) {
+			window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+		}
+		if (window != null && window.getActivePage() != null) {
+			return window.getActivePage().getActiveEditor();
+		}
+		return null;
+	}
+
+	/**
+	 * Describes an editor again after its dirty state, title or input changed, on the UI thread
+	 */
+	private synchronized void updateEditor(IEditorReference reference) {
+		if (!started) {
+			return;
+		}
+		if (reference == null) {
+			described.clear();
+			updateEditors();
+			return;
+		}
+
+		Editor previous = described.get(reference);
+		if (previous == null) {
+			updateEditors();
+			return;
+		}
+		Editor editor = EditorAdapter.toEditor(reference, previous.isActive());
+		described.put(reference, editor);
+
+		Editor[] editors = this.editors.clone();
+		for (int i = 0; i < editors.length; i++) {
+			if (editors[i] == previous) {
+				editors[i] = editor;
+			}
+		}
+		Map<IEditorReference, Editor> descriptions = new HashMap<IEditorReference, Editor>(this.descriptions);
+		descriptions.put(reference, editor);
+		if (!previous.name().equals(editor.name())) {
+			// the name of the reference changes with its title
+			Map<String, IEditorReference> references = new HashMap<String, IEditorReference>(this.references);
+			references.values().remove(reference);
+			references.put(reference.getName(), reference);
+			this.references = Map.copyOf(references);
+		}
+
+		this.editors = editors;
+		this.descriptions = Map.copyOf(descriptions);
+		if (previous == activeEditor) {
+			this.activeEditor = editor;
+		}
+		publish();
+	}
+
+	/**
+	 * Lists the open editors, on the UI thread.  Only editors that were not described yet,
+	 * or that were activated or deactivated, are described again.
+	 */
+	private synchronized void updateEditors() {
+		if (!started) {
+			return;
+		}
+		IEditorPart active = getActiveEditor();
+
+		List<Editor> editors = new ArrayList<Editor>();
+		Map<String, IEditorReference> references = new HashMap<String, IEditorReference>();
+		Set<IEditorReference> open = new HashSet<IEditorReference>();
+		Editor activeEditor = null;
+		for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
+			for (IWorkbenchPage page: window.getPages()) {
+				for (IEditorReference reference: page.getEditorReferences()) {
+					boolean isActive = active != null && reference.getPart(false) == active;
+					Editor editor = described.get(reference);
+					if (editor == null || editor.isActive() != isActive) {
+						editor = EditorAdapter.toEditor(reference, isActive);
+						described.put(reference, editor);
+					}
+					editors.add(editor);
+					references.put(reference.getName(), reference);
+					open.add(reference);
+					if (isActive) {
+						activeEditor = editor;
+					}
+				}
+			}
+		}
+		described.keySet().retainAll(open);
+
+		this.editors = editors.toArray(Editor[]::new);
+		this.references = Map.copyOf(references);
+		this.descriptions = Map.copyOf(described);
+		this.activeEditor = activeEditor;
+		this.selection = active == null ? null : EditorAdapter.toTextSelection(active);
+		publish();
+	}
+
+	/**
+	 * Reads the selection of the active editor, on the UI thread
+	 */
+	private synchronized void updateSelection() {
+		if (!started) {
+			return;
+		}
+		IEditorPart active = getActiveEditor();
+		this.selection = active == null ? null : EditorAdapter.toTextSelection(active);
+		publish();
+	}
+
+	/**
+	 * Describes the open consoles, console listeners are called on any thread
+	 */
+	private synchronized void updateConsoles() {
+		if (!started) {
+			return;
+		}
+		this.consoles = ConsoleAdapter.getConsoles().consoles();
+		publish();
+	}
+
+	private void publish() {
+		snapshot = new Snapshot(++version, editors, activeEditor, selection, consoles, references, descriptions);
+	}
+}
@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Console;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Consoles;
 import org.eclipse.ui.console.ConsolePlugin;
@@ -31,7 +32,6 @@ import org.eclipse.ui.console.TextConsole;
 
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 /**
  * support for resource template: eclipse://console/{name}
@@ -49,9 +49,10 @@ public class ConsoleAdapter implements IResourceTemplate<IConsole, Console> {
 	}
 	
 	public ConsoleAdapter(String uri) {
-		DefaultMcpUriTemplateManager tm = new DefaultMcpUriTemplateManager(template);
-		if (tm.matches(uri)) {
-			Map<String, String> variables = tm.extractVariableValues(uri);
+		// a range to read is given as a query, it is not part of the name
+		uri = ContentRange.stripQuery(uri);
+		Map<String, String> variables = UriTemplate.compile(template).extract(uri);
+		if (variables != null) {
 			String name = variables.get("name");
 			name = URLDecoder.decode(name, StandardCharsets.UTF_8);
 
@@ -110,10 +111,17 @@ public class ConsoleAdapter implements IResourceTemplate<IConsole, Console> {
 
 	@Override
 	public String toContent() {
+		return toContent(ContentRange.ALL).text();
+	}
+
+	/**
+	 * @return the range of the console's document, only the selected region is copied
+	 */
+	public ContentRange.Content toContent(ContentRange range) {
 		if (console instanceof TextConsole) {
-			return ((TextConsole)console).getDocument().get();
+			return range.read(((TextConsole)console).getDocument());
 		}
-		return "...";
+		return new ContentRange.Content("...", -1);
 	}
 	
 	public static Consoles getConsoles() {
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.resource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.agents.MCPException;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Part of a text resource to read, given as query parameters of a resource uri:
+ * line and lines select a range of lines, cursor resumes a read that reached the size cap.
+ *
+ * Text is streamed from the source, only the selected part is held in memory, and line delimiters are kept.
+ */
+public class ContentRange {
+
+	/**
+	 * Maximum number of characters returned by a single MCP resource read
+	 */
+	public static final int MAX_CHARS = 256 * 1024;
+
+	/**
+	 * The whole content, without a size cap
+	 */
+	public static final ContentRange ALL = new ContentRange(0, -1, -1, Integer.MAX_VALUE);
+
+	public static final String LINE = "line"; //$NON-NLS-1$
+	public static final String LINES = "lines"; //$NON-NLS-1$
+	public static final String CURSOR = "cursor"; //$NON-NLS-1$
+
+	private final int line;
+	private final int lines;
+	private final long cursor;
+	private final int maxChars;
+
+	/**
+	 * @param text the selected text
+	 * @param nextCursor the cursor to resume reading from, or -1 if the range was read to its end
+	 */
+	public record Content(String text, long nextCursor) {
+		public boolean isTruncated() {
+			return nextCursor != -1;
+		}
+	}
+
+	/**
+	 * @param line first line to read, from 0
+	 * @param lines number of lines to read, or -1 for all remaining lines
+	 * @param cursor character offset to resume from, or -1 to start at the line
+	 * @param maxChars maximum number of characters to read
+	 */
+	public ContentRange(int line, int lines, long cursor, int maxChars) {
+		this.line = line;
+		this.lines = lines;
+		this.cursor = cursor;
+		this.maxChars = maxChars;
+	}
+
+	/**
+	 * @param query the query of a resource uri, such as line=100&lines=50, may be null
+	 * @return the range selected by the query, capped at {@link #MAX_CHARS}
+	 */
+	public static ContentRange parse(String query) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		if (query != null) {
+			for (String parameter: query.split("&")) { //$NON-NLS-1$
+				int equals = parameter.indexOf('=');
+				if (equals > 0) {
+					parameters.put(parameter.substring(0, equals), parameter.substring(equals + 1));
+				}
+			}
+		}
+		try {
+			int line = Integer.parseInt(parameters.getOrDefault(LINE, "0")); //$NON-NLS-1$
+			int lines = Integer.parseInt(parameters.getOrDefault(LINES, "-1")); //$NON-NLS-1$
+			long cursor = Long.parseLong(parameters.getOrDefault(CURSOR, "-1")); //$NON-NLS-1$
+			if (line < 0 || lines < -1) {
+				throw new MCPException("line and lines must not be negative");
+			}
+			return new ContentRange(line, lines, cursor, MAX_CHARS);
+		} catch (NumberFormatException e) {
+			throw new MCPException("Invalid range: " + query);
+		}
+	}
+
+	/**
+	 * @return the uri without its query
+	 */
+	public static String stripQuery(String uri) {
+		int query = uri.indexOf('?');
+		return query == -1 ? uri : uri.substring(0, query);
+	}
+
+	/**
+	 * @return the query of the uri, or null
+	 */
+	public static String getQuery(String uri) {
+		int query = uri.indexOf('?');
+		return query == -1 ? null : uri.substring(query + 1);
+	}
+
+	/**
+	 * @return a uri reading the rest of this range from the cursor
+	 */
+	public String toNextUri(String uri, long nextCursor) {
+		StringBuilder next = new StringBuilder(stripQuery(uri));
+		next.append('?').append(CURSOR).append('=').append(nextCursor);
+		if (lines != -1) {
+			// the line range is kept so the read still ends where it was asked to
+			next.append('&').append(LINE).append('=').append(line);
+			next.append('&').append(LINES).append('=').append(lines);
+		}
+		return next.toString();
+	}
+
+	/**
+	 * Reads the range from the reader, which is not closed
+	 */
+	public Content read(Reader reader) throws IOException {
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[8192];
+		int endLine = lines == -1 ? Integer.MAX_VALUE : line + lines;
+
+		long offset = 0;
+		int current = 0;
+		boolean carriageReturn = false;
+		int read;
+		while ((read = reader.read(buffer)) != -1) {
+			for (int i = 0; i < read; i++, offset++) {
+				char c = buffer[i];
+				// a line feed following a carriage return belongs to the same delimiter
+				if (carriageReturn && c != '\n') {
+					current++;
+				}
+				carriageReturn = c == '\r';
+				if (current >= endLine) {
+					return new Content(text.toString(), -1);
+				}
+				if (current >= line && offset >= cursor) {
+					if (text.length() >= maxChars) {
+						return new Content(text.toString(), offset);
+					}
+					text.append(c);
+				}
+				if (c == '\n') {
+					current++;
+				}
+			}
+		}
+		return new Content(text.toString(), -1);
+	}
+
+	/**
+	 * Reads the range from a document, copying only the selected region
+	 */
+	public Content read(IDocument document) {
+		try {
+			int numberOfLines = document.getNumberOfLines();
+			if (line >= numberOfLines) {
+				return new Content("", -1); //$NON-NLS-1$
+			}
+			long start = document.getLineOffset(line);
+			long end = lines == -1 || line + lines >= numberOfLines ?
+					document.getLength() : document.getLineOffset(line + lines);
+			start = Math.max(start, cursor);
+			if (start >= end) {
+				return new Content("", -1); //$NON-NLS-1$
+			}
+			if (end - start > maxChars) {
+				return new Content(document.get((int)start, maxChars), start + maxChars);
+			}
+			return new Content(document.get((int)start, (int)(end - start)), -1);
+		} catch (BadLocationException e) {
+			throw new MCPException(e);
+		}
+	}
+}
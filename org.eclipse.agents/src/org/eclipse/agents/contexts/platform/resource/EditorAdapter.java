@@ -20,15 +20,14 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.MCPException;
-import org.eclipse.agents.Tracer;
 import org.eclipse.agents.contexts.adapters.IResourceTemplate;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
+import org.eclipse.agents.contexts.platform.WorkbenchState;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editor;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Editors;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TextEditorSelection;
@@ -55,7 +54,6 @@ import org.eclipse.ui.texteditor.ITextEditor;
 
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 /**
  * support for resource template: eclipse://editor/{name}
@@ -73,21 +71,11 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 	}
 	
 	public EditorAdapter(String uri) {
-		DefaultMcpUriTemplateManager tm = new DefaultMcpUriTemplateManager(template);
-		if (tm.matches(uri)) {
-			Map<String, String> variables = tm.extractVariableValues(uri);
+		Map<String, String> variables = UriTemplate.compile(template).extract(uri);
+		if (variables != null) {
 			String name = variables.get("name");
 			name = URLDecoder.decode(name,StandardCharsets.UTF_8);
-
-			for (IWorkbenchWindow window: PlatformUI.getWorkbench().getWorkbenchWindows()) {
-				for (IWorkbenchPage page: window.getPages()) {
-					for (IEditorReference reference: page.getEditorReferences()) {
-						if (reference.getName().equals(name)) {
-							this.editorReference = reference;
-						}
-					}
-				}
-			}
+			this.editorReference = WorkbenchState.instance().getSnapshot().references().get(name);
 		}
 		
 		if (editorReference == null) {
@@ -117,51 +105,46 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 
 	@Override
 	public Editor toJson() {
-		String name = editorReference.getTitle();
-		boolean isDirty = editorReference.isDirty();
-		String contentDescription = editorReference.getContentDescription();
-		String tooltip = editorReference.getTitleToolTip();
-		
-		Tracer.trace().trace(Tracer.PLATFORM, contentDescription);
-		Tracer.trace().trace(Tracer.PLATFORM, tooltip);
-		
-		
-		boolean[] isActive = new boolean[] { false };
+		Editor editor = WorkbenchState.instance().getSnapshot().descriptions().get(editorReference);
+		if (editor == null) {
+			// opened since the last snapshot
+			Editor[] result = new Editor[] { null };
+			Activator.getDisplay().syncExec(() -> {
+				IEditorPart active = getActiveEditor();
+				result[0] = toEditor(editorReference, active != null && editorReference.getPart(false) == active);
+			});
+			editor = result[0];
+		}
+		return editor;
+	}
+
+	/**
+	 * Describes the editor, on the UI thread
+	 */
+	public static Editor toEditor(IEditorReference reference, boolean isActive) {
 		ResourceLink file = null;
-		ResourceLink editor = toResourceLink();
-		
-		IEditorPart part = editorReference.getEditor(false);
+		IEditorPart part = reference.getEditor(false);
 		if (part != null) {
-			Activator.getDisplay().syncExec(new Runnable() {
-				@Override
-				public void run() {
-					IWorkbench workbench = PlatformUI.getWorkbench();
-					if (workbench != null) {
-						IWorkbenchWindow window = workbench.getActiveWorkbenchWindow();
-						if (window != null) {
-							IWorkbenchPage page = window.getActivePage();
-							if (page != null) {
-								if (part == page.getActiveEditor()) {
-									isActive[0] = true;
-								}
-							}
-						}
-					}
-				}
-			});
-		
 			IEditorInput input = part.getEditorInput();
 			if (input instanceof IFileEditorInput) {
+				// the size is read from the file system once per version of the file, and cached after
 				WorkspaceResourceAdapter adapter = new WorkspaceResourceAdapter( ((IFileEditorInput)input).getFile());
-				file = adapter.toResourceLink();
+				file = adapter.toResourceLink(true);
 			}
 		}
-
-		return new Editor(name, editor, file, isActive[0], isDirty);
+		// the document size changes with every keystroke, it is left out of the described editor
+		return new Editor(reference.getTitle(), new EditorAdapter(reference).toResourceLink(false), file, isActive, reference.isDirty());
 	}
 
 	@Override
 	public ResourceLink toResourceLink() {
+		return toResourceLink(true);
+	}
+
+	/**
+	 * @param size whether to include the length of a text editor's document
+	 */
+	public ResourceLink toResourceLink(boolean size) {
 		McpSchema.ResourceLink.Builder builder =  McpSchema.ResourceLink.builder();
 		
 		builder
@@ -177,9 +160,10 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 					ITextEditor textEditor = (ITextEditor)part;
 					IDocument document = textEditor.getDocumentProvider().getDocument(part.getEditorInput());
 					
-					builder
-						.mimeType("text/plain")
-						.size((long)document.getLength());
+					builder.mimeType("text/plain");
+					if (size) {
+						builder.size((long)document.getLength());
+					}
 				} 
 			}
 		});
@@ -254,48 +238,56 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 		Display.getDefault().syncExec(new Runnable() {
 			@Override
 			public void run() {
-				IEditorPart part = editorReference.getEditor(false);
-				ISelection selection = null;
-				
-				if (part instanceof ITextEditor) {
-					selection = ((ITextEditor)part).getSelectionProvider().getSelection();
-				} else if (part instanceof ISelectionProvider) {
-					selection = ((ISelectionProvider)part).getSelection();
-				}
-
-				if (selection instanceof ITextSelection) {
-					ITextSelection textSelection = (ITextSelection) selection;
-					result[0] = new TextSelection(
-							textSelection.getOffset(),
-							textSelection.getLength(),
-							textSelection.getStartLine(),
-							textSelection.getEndLine(),
-							textSelection.getText());
-
-				} else if (selection instanceof IMarkSelection) {
-					IMarkSelection markSelection = (IMarkSelection) selection;
-					int offset = markSelection.getOffset();
-					int length = markSelection.getLength();
-					try {
-						result[0] = new TextSelection(
-								offset,
-								length,
-								markSelection.getDocument().getLineOfOffset(offset),
-								markSelection.getDocument().getLineOfOffset(offset + length),
-								markSelection.getDocument().get(offset, length));
-
-					} catch (BadLocationException e) {
-						e.printStackTrace();
-						result[0] = new TextSelection(
-								markSelection.getOffset(),
-								markSelection.getLength(),
-								(Integer)null, (Integer)null, null);
-					} 
-				}
+				result[0] = toTextSelection(editorReference.getEditor(false));
 			}
 		});
 		return result[0];
 	}
+
+	/**
+	 * Reads the text selected in the editor, on the UI thread
+	 * @return the selection, or null if the editor has no text selection
+	 */
+	public static TextSelection toTextSelection(IEditorPart part) {
+		ISelection selection = null;
+		
+		if (part instanceof ITextEditor) {
+			selection = ((ITextEditor)part).getSelectionProvider().getSelection();
+		} else if (part instanceof ISelectionProvider) {
+			selection = ((ISelectionProvider)part).getSelection();
+		}
+
+		if (selection instanceof ITextSelection) {
+			ITextSelection textSelection = (ITextSelection) selection;
+			return new TextSelection(
+					textSelection.getOffset(),
+					textSelection.getLength(),
+					textSelection.getStartLine(),
+					textSelection.getEndLine(),
+					textSelection.getText());
+
+		} else if (selection instanceof IMarkSelection) {
+			IMarkSelection markSelection = (IMarkSelection) selection;
+			int offset = markSelection.getOffset();
+			int length = markSelection.getLength();
+			try {
+				return new TextSelection(
+						offset,
+						length,
+						markSelection.getDocument().getLineOfOffset(offset),
+						markSelection.getDocument().getLineOfOffset(offset + length),
+						markSelection.getDocument().get(offset, length));
+
+			} catch (BadLocationException e) {
+				e.printStackTrace();
+				return new TextSelection(
+						markSelection.getOffset(),
+						markSelection.getLength(),
+						(Integer)null, (Integer)null, null);
+			} 
+		}
+		return null;
+	}
 	
 	public static IEditorPart getActiveEditor() {
 		IEditorPart[] activeEditor = new IEditorPart[] { null };
@@ -319,16 +311,6 @@ public class EditorAdapter implements IResourceTemplate<IEditorReference, Editor
 	}
 	
 	public static Editors getEditors() {
-		List<Editor> editors = new ArrayList<Editor>();
-		for (IWorkbenchWindow ww : PlatformUI.getWorkbench().getWorkbenchWindows()) {
-			for (IWorkbenchPage page : ww.getPages()) {
-				for (IEditorReference reference : page.getEditorReferences()) {
-					EditorAdapter adapter = new EditorAdapter(reference);
-					editors.add(adapter.toJson());
-				}
-			}
-		}
-
-		return new Editors(editors.toArray(Editor[]::new));
+		return new Editors(WorkbenchState.instance().getSnapshot().editors());
 	}
 }
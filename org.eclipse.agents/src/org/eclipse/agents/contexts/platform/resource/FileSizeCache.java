@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.contexts.platform.resource;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Sizes of workspace files, read from the file system once per version of the file.
+ *
+ * A size is reused while the file's local time stamp, which the workspace keeps in its resource
+ * tree, is unchanged.  Resource deltas drop the sizes of changed and removed files, and at most
+ * {@link #MAX_ENTRIES} sizes are kept.
+ */
+public class FileSizeCache implements IResourceChangeListener {
+
+	private static final FileSizeCache instance = new FileSizeCache();
+
+	private static final int MAX_ENTRIES = 16 * 1024;
+
+	private record Size(long stamp, long length) {
+	}
+
+	private final Map<IPath, Size> sizes = new ConcurrentHashMap<IPath, Size>();
+	private volatile boolean listening = false;
+
+	public static FileSizeCache instance() {
+		return instance;
+	}
+
+	private FileSizeCache() {
+	}
+
+	/**
+	 * @return the size of the file in bytes, or -1 if it is not available locally
+	 */
+	long getSize(IFile file) {
+		if (!listening) {
+			listen();
+		}
+
+		long stamp = file.getLocalTimeStamp();
+		if (stamp == IResource.NULL_STAMP) {
+			return -1;
+		}
+		Size size = sizes.get(file.getFullPath());
+		if (size != null && size.stamp() == stamp) {
+			return size.length();
+		}
+
+		try {
+			long length = EFS.getStore(file.getLocationURI()).fetchInfo().getLength();
+			if (sizes.size() >= MAX_ENTRIES) {
+				// an arbitrary size is dropped, it is read again the next time it is needed
+				Iterator<IPath> iterator = sizes.keySet().iterator();
+				if (iterator.hasNext()) {
+					iterator.next();
+					iterator.remove();
+				}
+			}
+			sizes.put(file.getFullPath(), new Size(stamp, length));
+			return length;
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.MCP, "Failed to read size of " + file.getFullPath(), e); //$NON-NLS-1$
+			return -1;
+		}
+	}
+
+	private synchronized void listen() {
+		if (!listening) {
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+			listening = true;
+		}
+	}
+
+	public synchronized void dispose() {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		listening = false;
+		sizes.clear();
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null || sizes.isEmpty()) {
+			return;
+		}
+		try {
+			delta.accept(child -> {
+				IResource resource = child.getResource();
+				if (resource.getType() == IResource.FILE) {
+					if (child.getKind() == IResourceDelta.REMOVED || (child.getFlags() & IResourceDelta.CONTENT) != 0) {
+						sizes.remove(resource.getFullPath());
+					}
+				} else if (child.getKind() == IResourceDelta.REMOVED) {
+					IPath path = resource.getFullPath();
+					sizes.keySet().removeIf(path::isPrefixOf);
+					return false;
+				}
+				return true;
+			});
+		} catch (CoreException e) {
+			Tracer.trace().trace(Tracer.MCP, "Failed to visit resource delta", e); //$NON-NLS-1$
+			sizes.clear();
+		}
+	}
+}
@@ -20,6 +20,7 @@ import java.util.Map;
 
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.contexts.adapters.IResourceAdapter;
+import org.eclipse.agents.contexts.platform.MarkerIndex;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Marker;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.PRIORITY;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Problems;
@@ -28,7 +29,6 @@ import org.eclipse.agents.contexts.platform.resource.ResourceSchema.TYPE;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Tasks;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.source.Annotation;
@@ -59,7 +59,8 @@ public class MarkerAdapter implements IResourceAdapter<Marker> {
 	public MarkerAdapter(IMarker marker) {
 		try {
 			processMarker(marker);
-			resource_link = new WorkspaceResourceAdapter(marker.getResource()).toResourceLink();
+			// markers are converted in bulk, their files are not read
+			resource_link = new WorkspaceResourceAdapter(marker.getResource()).toResourceLink(false);
 		} catch (Exception e) {
 			throw new MCPException(e);
 		}
@@ -134,7 +135,7 @@ public class MarkerAdapter implements IResourceAdapter<Marker> {
 			type = TYPE.Text;
 		}
 		
-		Object obj = marker.getAttribute(IMarker.PRIORITY);
+		Object obj = map.get(IMarker.PRIORITY);
 		if (obj != null) {
 			if (obj.equals(IMarker.PRIORITY_HIGH)) {
 				priority = PRIORITY.HIGH;
@@ -145,7 +146,7 @@ public class MarkerAdapter implements IResourceAdapter<Marker> {
 			}
 		}
 
-		obj = marker.getAttribute(IMarker.SEVERITY);
+		obj = map.get(IMarker.SEVERITY);
 		if (obj != null) {
 			if (obj.equals(IMarker.SEVERITY_ERROR)) {
 				severity = SEVERITY.ERROR;
@@ -185,23 +186,44 @@ public class MarkerAdapter implements IResourceAdapter<Marker> {
 		}
 	}
 
-	public static Problems getProblems(IResource resource) {
-		try {
-			List<Marker> children = new ArrayList<Marker>();
-			for (IMarker marker: resource.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE)) {
-	    		MarkerAdapter adapter = new MarkerAdapter(marker);
-	    		children.add(adapter.toJson());
-			}	
-			return new Problems(children.toArray(Marker[]::new));
-
-		} catch (CoreException e) {
-			e.printStackTrace();
+	/**
+	 * @param minimum the lowest severity to accept, or null to accept any
+	 * @return whether the severity is as high as the minimum, markers without a severity rank as info
+	 */
+	public static boolean isAtLeast(SEVERITY severity, SEVERITY minimum) {
+		return minimum == null || rank(severity) >= rank(minimum);
+	}
+
+	private static int rank(SEVERITY severity) {
+		if (SEVERITY.ERROR.equals(severity)) {
+			return 2;
+		} else if (SEVERITY.WARNING.equals(severity)) {
+			return 1;
 		}
-		
-		return null;
+		return 0;
+	}
+
+	public static Problems getProblems(IResource resource) {
+		return getProblems(resource, null, null, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param minimum the lowest severity to include, or null for all problems
+	 * @param cursor the nextCursor of a previous page, or null
+	 */
+	public static Problems getProblems(IResource resource, SEVERITY minimum, String cursor, int limit) {
+		MarkerIndex.Page page = MarkerIndex.instance().find(TYPE.Problem, resource, minimum, cursor, limit);
+		return new Problems(page.markers(), page.nextCursor());
 	}
 
 	public static Problems getProblems(ITextEditor editor) {
+		return getProblems(editor, null);
+	}
+
+	/**
+	 * @param minimum the lowest severity to include, or null for all problems
+	 */
+	public static Problems getProblems(ITextEditor editor, SEVERITY minimum) {
 		List<Marker> children = new ArrayList<Marker>();
 		IDocument document = editor.getDocumentProvider().getDocument(editor.getEditorInput());
 		IAnnotationModel model = editor.getDocumentProvider().getAnnotationModel(editor.getEditorInput());
@@ -210,28 +232,24 @@ public class MarkerAdapter implements IResourceAdapter<Marker> {
 			Annotation annotation = iterator.next();
 			MarkerAdapter adapter = new MarkerAdapter(annotation, model.getPosition(annotation), document, editor);
 			Marker marker = adapter.toJson();
-			if (TYPE.Problem.equals(marker.type())) {
+			if (TYPE.Problem.equals(marker.type()) && isAtLeast(marker.severity(), minimum)) {
 				children.add(marker);
 			}
 		}
 		
-		return new Problems(children.toArray(Marker[]::new));
+		return new Problems(children.toArray(Marker[]::new), null);
 	}
 	
 	public static Tasks getTasks(IResource resource) {
-		try {
-			List<Marker> children = new ArrayList<Marker>();
-			for (IMarker marker: resource.findMarkers(IMarker.TASK, true, IResource.DEPTH_INFINITE)) {
-	    		MarkerAdapter adapter = new MarkerAdapter(marker);
-	    		children.add(adapter.toJson());
-			}	
-			return new Tasks(children.toArray(Marker[]::new));
-
-		} catch (CoreException e) {
-			e.printStackTrace();
-		}
-		
-		return null;
+		return getTasks(resource, null, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param cursor the nextCursor of a previous page, or null
+	 */
+	public static Tasks getTasks(IResource resource, String cursor, int limit) {
+		MarkerIndex.Page page = MarkerIndex.instance().find(TYPE.Task, resource, null, cursor, limit);
+		return new Tasks(page.markers(), page.nextCursor());
 	}
 
 	public static Tasks getTasks(ITextEditor editor) {
@@ -248,7 +266,7 @@ public class MarkerAdapter implements IResourceAdapter<Marker> {
 			}
 		}
 		
-		return new Tasks(children.toArray(Marker[]::new));
+		return new Tasks(children.toArray(Marker[]::new), null);
 	}
 		
 }
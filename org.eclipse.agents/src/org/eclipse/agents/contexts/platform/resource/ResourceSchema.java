@@ -250,13 +250,21 @@ public class ResourceSchema {
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	public record Problems (
 		@JsonProperty(value = "problems")
-		Marker[] problems) {}
+		Marker[] problems,
+
+		@JsonProperty(required = false)
+		@JsonPropertyDescription("Pass as cursor to list the next page, absent on the last page")
+		String nextCursor) {}
 
 	@JsonInclude(JsonInclude.Include.NON_ABSENT)
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	public record Tasks (
 			@JsonProperty(value = "tasks")
-			Marker[] tasks) {}
+			Marker[] tasks,
+
+			@JsonProperty(required = false)
+			@JsonPropertyDescription("Pass as cursor to list the next page, absent on the last page")
+			String nextCursor) {}
 	
 	@JsonInclude(JsonInclude.Include.NON_ABSENT)
 	@JsonIgnoreProperties(ignoreUnknown = true)
@@ -13,25 +13,22 @@
  *******************************************************************************/
 package org.eclipse.agents.contexts.platform.resource;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.eclipse.agents.MCPException;
 import org.eclipse.agents.contexts.adapters.IResourceHierarchy;
+import org.eclipse.agents.contexts.adapters.UriTemplate;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.Children;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.DEPTH;
 import org.eclipse.agents.contexts.platform.resource.ResourceSchema.File;
-import org.eclipse.core.filesystem.EFS;
-import org.eclipse.core.filesystem.IFileInfo;
-import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -45,7 +42,6 @@ import org.eclipse.core.runtime.CoreException;
 
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.ResourceLink;
-import io.modelcontextprotocol.util.DefaultMcpUriTemplateManager;
 
 /**
  * support for resource template: file://workspace/{relativePath}
@@ -81,12 +77,13 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 
 	public WorkspaceResourceAdapter(String uri) {
 		
-		DefaultMcpUriTemplateManager relative = new DefaultMcpUriTemplateManager(relativeTemplate);
+		// a range to read is given as a query, it is not part of the path
+		uri = ContentRange.stripQuery(uri);
+		Map<String, String> variables = UriTemplate.compile(relativeTemplate).extract(uri);
 		String relativePath = null, absolutePath = null;
 		boolean isRelative = false;
 		
-		if (relative.matches(uri)) {
-			Map<String, String> variables = relative.extractVariableValues(uri);
+		if (variables != null) {
 			relativePath = variables.get("relativePath");
 			relativePath = URLDecoder.decode(relativePath, StandardCharsets.UTF_8);
 			isRelative = true;
@@ -146,6 +143,13 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 
 	@Override
 	public Children<File> getChildren(DEPTH depth) {
+		return getChildren(depth, true);
+	}
+
+	/**
+	 * @param size whether to include the sizes of files in their links
+	 */
+	public Children<File> getChildren(DEPTH depth, boolean size) {
 		
 		List<File> children = new ArrayList<File>();
 		if (depth == null) {
@@ -159,7 +163,7 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 						@Override
 						public boolean visit(IResource child) throws CoreException {
 							if (child != resource) {
-								children.add(new WorkspaceResourceAdapter(child).toJson());
+								children.add(new WorkspaceResourceAdapter(child).toJson(size));
 							}
 							return true;
 						}
@@ -180,11 +184,23 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 
 	@Override
 	public File toJson() {
-		return new File(resource.getName(), resource instanceof IContainer, toResourceLink());
+		return toJson(true);
+	}
+
+	public File toJson(boolean size) {
+		return new File(resource.getName(), resource instanceof IContainer, toResourceLink(size));
 	}
 
 	@Override
 	public ResourceLink toResourceLink() {
+		return toResourceLink(true);
+	}
+
+	/**
+	 * @param size whether to include the size of a file, which is read from the file system once
+	 * per version of the file, and can be left out of links that are built in bulk, such as those of markers
+	 */
+	public ResourceLink toResourceLink(boolean size) {
 		McpSchema.ResourceLink.Builder builder =  McpSchema.ResourceLink.builder()
 				.uri(toUri())
 				.name(resource.getName());
@@ -193,13 +209,11 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 			builder.description("Eclipse workspace file");
 			builder.mimeType("text/plain");
 
-			try {
-				IFileStore store = EFS.getStore(resource.getLocationURI());
-				IFileInfo info = store.fetchInfo();
-				builder.size(info.getLength());
-				
-			} catch (CoreException e) {
-				e.printStackTrace();
+			if (size) {
+				long length = FileSizeCache.instance().getSize((IFile)resource);
+				if (length != -1) {
+					builder.size(length);
+				}
 			}
 		} else if (resource instanceof IProject) {
 			builder.description("Eclipse workspace project");
@@ -220,20 +234,25 @@ public class WorkspaceResourceAdapter implements IResourceHierarchy<IResource, F
 
 	@Override
 	public String toContent() {
-		
-		String content = null;
+		ContentRange.Content content = toContent(ContentRange.ALL);
+		return content == null ? null : content.text();
+	}
+
+	/**
+	 * Streams the range of the file's content, decoded with the file's charset
+	 * @return the content, or null if the resource is not a file
+	 */
+	public ContentRange.Content toContent(ContentRange range) {
 		if (resource instanceof IFile) {
-			try {
-				InputStreamReader reader = new InputStreamReader(((IFile)resource).getContents());
-				BufferedReader breader = new BufferedReader(reader);
-				content = breader.lines().collect(Collectors.joining("\n")); //$NON-NLS-1$
-				breader.close();
+			IFile file = (IFile)resource;
+			try (Reader reader = new InputStreamReader(file.getContents(), file.getCharset())) {
+				return range.read(reader);
 			} catch (CoreException e) {
 				e.printStackTrace();
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
 		}
-		return content;
+		return null;
 	}
 }
\ No newline at end of file
@@ -42,8 +42,8 @@ public class AcpGeneralPreferencePage extends PreferencePage
 		implements IPreferenceConstants, IWorkbenchPreferencePage, ModifyListener {
 
 	VerifyListener integerListener;
-	Text cwd;
-	Button readFiles, writeFiles, prompt4MCP;
+	Text cwd, dispatchThreads, dispatchQueueLimit;
+	Button readFiles, writeFiles, prompt4MCP, virtualThreads;
 	
 	public AcpGeneralPreferencePage() {
 		super();
@@ -99,6 +99,31 @@ public class AcpGeneralPreferencePage extends PreferencePage
 		prompt4MCP.setLayoutData(new GridData());
 		((GridData)prompt4MCP.getLayoutData()).horizontalSpan = 4;
 		
+		label = new Label(parent, SWT.NONE);
+		label.setText("Dispatch Threads");
+		label.setToolTipText("Maximum number of threads each agent uses to handle file and permission requests");
+		label.setLayoutData(new GridData());
+		
+		dispatchThreads = new Text(parent, SWT.SINGLE | SWT.BORDER);
+		dispatchThreads.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+		dispatchThreads.addVerifyListener(integerListener);
+		dispatchThreads.addModifyListener(this);
+		
+		label = new Label(parent, SWT.NONE);
+		label.setText("Queue Limit");
+		label.setToolTipText("Number of pending agent requests after which reading from the agent is paused");
+		label.setLayoutData(new GridData());
+		
+		dispatchQueueLimit = new Text(parent, SWT.SINGLE | SWT.BORDER);
+		dispatchQueueLimit.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+		dispatchQueueLimit.addVerifyListener(integerListener);
+		dispatchQueueLimit.addModifyListener(this);
+		
+		virtualThreads = new Button(parent, SWT.CHECK);
+		virtualThreads.setText("Use virtual threads for agent requests (Java 21 or later)");
+		virtualThreads.setLayoutData(new GridData());
+		((GridData)virtualThreads.getLayoutData()).horizontalSpan = 4;
+		
 		
 		PlatformUI.getWorkbench().getHelpSystem().setHelp(parent,
 				"org.eclipse.agent.acp.preferences.AcpGeneralPreferencePage"); //$NON-NLS-1$
@@ -124,17 +149,35 @@ public class AcpGeneralPreferencePage extends PreferencePage
 			}
 		}
 		
+		if (errorMessage == null && !isPositive(dispatchThreads.getText())) {
+			errorMessage = "Enter a positive number of dispatch threads";
+		}
+		if (errorMessage == null && !isPositive(dispatchQueueLimit.getText())) {
+			errorMessage = "Enter a positive queue limit";
+		}
+		
 		setValid(errorMessage == null);
 		setErrorMessage(errorMessage);
 
 	}
 
+	private boolean isPositive(String text) {
+		try {
+			return Integer.parseInt(text) > 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
 	private void loadPreferences() {
 		IPreferenceStore store = getPreferenceStore();
 		cwd.setText(store.getString(P_ACP_WORKING_DIR));
 		readFiles.setSelection(store.getBoolean(P_ACP_FILE_READ));
 		writeFiles.setSelection(store.getBoolean(P_ACP_FILE_WRITE));
 		prompt4MCP.setSelection(store.getBoolean(P_ACP_PROMPT4MCP));
+		dispatchThreads.setText(store.getString(P_ACP_DISPATCH_THREADS));
+		dispatchQueueLimit.setText(store.getString(P_ACP_DISPATCH_QUEUE_LIMIT));
+		virtualThreads.setSelection(store.getBoolean(P_ACP_DISPATCH_VIRTUAL_THREADS));
 	}
 
 	private void savePreferences() {
@@ -143,12 +186,18 @@ public class AcpGeneralPreferencePage extends PreferencePage
 		boolean needsRestart = 
 				store.getBoolean(P_ACP_FILE_READ) != readFiles.getSelection() ||
 				store.getBoolean(P_ACP_FILE_WRITE) != writeFiles.getSelection() ||
-				store.getString(P_ACP_WORKING_DIR).equals(cwd.getText());
+				store.getString(P_ACP_WORKING_DIR).equals(cwd.getText()) ||
+				!store.getString(P_ACP_DISPATCH_THREADS).equals(dispatchThreads.getText()) ||
+				!store.getString(P_ACP_DISPATCH_QUEUE_LIMIT).equals(dispatchQueueLimit.getText()) ||
+				store.getBoolean(P_ACP_DISPATCH_VIRTUAL_THREADS) != virtualThreads.getSelection();
 		
 		store.setValue(P_ACP_WORKING_DIR, cwd.getText());
 		store.setValue(P_ACP_FILE_READ, readFiles.getSelection());
 		store.setValue(P_ACP_FILE_WRITE, writeFiles.getSelection());
 		store.setValue(P_ACP_PROMPT4MCP, prompt4MCP.getSelection());
+		store.setValue(P_ACP_DISPATCH_THREADS, dispatchThreads.getText());
+		store.setValue(P_ACP_DISPATCH_QUEUE_LIMIT, dispatchQueueLimit.getText());
+		store.setValue(P_ACP_DISPATCH_VIRTUAL_THREADS, virtualThreads.getSelection());
 		
 		if (needsRestart) {
 			Integer doRestart = null;
@@ -192,6 +241,9 @@ public class AcpGeneralPreferencePage extends PreferencePage
 		readFiles.setSelection(store.getDefaultBoolean(P_ACP_FILE_READ));
 		writeFiles.setSelection(store.getDefaultBoolean(P_ACP_FILE_WRITE));
 		prompt4MCP.setSelection(store.getDefaultBoolean(P_ACP_PROMPT4MCP));
+		dispatchThreads.setText(store.getDefaultString(P_ACP_DISPATCH_THREADS));
+		dispatchQueueLimit.setText(store.getDefaultString(P_ACP_DISPATCH_QUEUE_LIMIT));
+		virtualThreads.setSelection(store.getDefaultBoolean(P_ACP_DISPATCH_VIRTUAL_THREADS));
 		
 		updateValidation();
 	}
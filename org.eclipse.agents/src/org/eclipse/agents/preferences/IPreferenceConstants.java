@@ -21,6 +21,13 @@ public interface IPreferenceConstants {
 
 	public static final String P_MCP_SERVER_HTTP_PORT = Activator.PLUGIN_ID + ".default.mcp.http.port"; //$NON-NLS-1$
 	
+	public static final String P_MCP_SERVER_TRANSPORT = Activator.PLUGIN_ID + ".default.mcp.transport"; //$NON-NLS-1$
+	
+	// values of P_MCP_SERVER_TRANSPORT, the transport given to agents that support both, named like the transport types agents are given
+	public static final String MCP_TRANSPORT_SSE = "sse"; //$NON-NLS-1$
+	
+	public static final String MCP_TRANSPORT_HTTP = "http"; //$NON-NLS-1$
+	
 	public static final String P_ACP_WORKING_DIR = Activator.PLUGIN_ID + ".default.acp.cwd"; //$NON-NLS-1$
 	
 	public static final String P_ACP_FILE_READ = Activator.PLUGIN_ID + ".default.acp.file.read"; //$NON-NLS-1$
@@ -29,6 +36,12 @@ public interface IPreferenceConstants {
 	
 	public static final String P_ACP_PROMPT4MCP = Activator.PLUGIN_ID + ".default.acp.prompt4mcp"; //$NON-NLS-1$
 	
+	public static final String P_ACP_DISPATCH_THREADS = Activator.PLUGIN_ID + ".default.acp.dispatch.threads"; //$NON-NLS-1$
+	
+	public static final String P_ACP_DISPATCH_QUEUE_LIMIT = Activator.PLUGIN_ID + ".default.acp.dispatch.queue"; //$NON-NLS-1$
+	
+	public static final String P_ACP_DISPATCH_VIRTUAL_THREADS = Activator.PLUGIN_ID + ".default.acp.dispatch.virtual"; //$NON-NLS-1$
+	
 	public static final String P_ACP_GEMINI_VERSION= Activator.PLUGIN_ID + ".default.acp.gemini.version"; //$NON-NLS-1$
 
 }
@@ -53,6 +53,7 @@ public class McpGeneralPreferencePage extends PreferencePage
 	
 	Button serverEnable;
 	Text serverPort;
+	Button streamableHttp;
 	Text messages;
 	
 	public McpGeneralPreferencePage() {
@@ -117,12 +118,19 @@ public class McpGeneralPreferencePage extends PreferencePage
 		pathCopy.addSelectionListener(new SelectionAdapter() {
 			@Override
 			public void widgetSelected(SelectionEvent e) {
-				StringSelection strSelection = new StringSelection("http://localhost:" + serverPort.getText() + "/sse");
+				StringSelection strSelection = new StringSelection("http://localhost:" + serverPort.getText() +
+						(streamableHttp.getSelection() ? "/mcp" : "/sse"));
 				Clipboard systemClipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
 				systemClipboard.setContents(strSelection, null);
 			}
 		});
 		
+		streamableHttp = new Button(parent, SWT.CHECK);
+		streamableHttp.setText("Prefer the Streamable HTTP transport on /mcp, with HTTP/2 and compressed responses");
+		streamableHttp.setToolTipText("The server serves HTTP with SSE on /sse and Streamable HTTP on /mcp, agents supporting both are given the preferred one");
+		streamableHttp.setLayoutData(new GridData());
+		((GridData)streamableHttp.getLayoutData()).horizontalSpan = 4;
+		
 		messages = new Text(parent, SWT.MULTI | SWT.READ_ONLY | SWT.BORDER);
 		messages.setLayoutData(new GridData(GridData.FILL_BOTH));
 		((GridData)messages.getLayoutData()).horizontalSpan = 4;
@@ -162,6 +170,7 @@ public class McpGeneralPreferencePage extends PreferencePage
 		IPreferenceStore store = getPreferenceStore();
 		serverEnable.setSelection(store.getBoolean(P_MCP_SERVER_ENABLED));
 		serverPort.setText("" + store.getInt(P_MCP_SERVER_HTTP_PORT));
+		streamableHttp.setSelection(MCP_TRANSPORT_HTTP.equals(store.getString(P_MCP_SERVER_TRANSPORT)));
 	}
 
 	private void savePreferences() {
@@ -177,12 +186,17 @@ public class McpGeneralPreferencePage extends PreferencePage
 				
 		store.setValue(P_MCP_SERVER_ENABLED, serverEnable.getSelection());
 		store.setValue(P_MCP_SERVER_HTTP_PORT, Integer.parseInt(serverPort.getText()));;
+		store.setValue(P_MCP_SERVER_TRANSPORT, getTransport());
 
 		if (restartServer) {
 			Activator.getDefault().requestServerRestart();
 		}
 	}
 
+	private String getTransport() {
+		return streamableHttp.getSelection() ? MCP_TRANSPORT_HTTP : MCP_TRANSPORT_SSE;
+	}
+
 	@Override
 	public boolean performCancel() {
 		return super.performCancel();
@@ -200,6 +214,7 @@ public class McpGeneralPreferencePage extends PreferencePage
 
 		serverEnable.setSelection(store.getDefaultBoolean(P_MCP_SERVER_ENABLED));
 		serverPort.setText("" + store.getDefaultInt(P_MCP_SERVER_HTTP_PORT));
+		streamableHttp.setSelection(MCP_TRANSPORT_HTTP.equals(store.getDefaultString(P_MCP_SERVER_TRANSPORT)));
 		
 		updateValidation();
 	}
@@ -22,14 +22,17 @@ import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.eclipse.agents.Activator;
 import org.eclipse.agents.Tracer;
 import org.eclipse.agents.chat.controller.AgentController;
 import org.eclipse.agents.chat.controller.InitializeAgentJob;
+import org.eclipse.agents.preferences.IPreferenceConstants;
 import org.eclipse.agents.services.protocol.AcpClient;
 import org.eclipse.agents.services.protocol.AcpClientLauncher;
 import org.eclipse.agents.services.protocol.AcpClientThread;
+import org.eclipse.agents.services.protocol.AcpDispatchExecutor;
 import org.eclipse.agents.services.protocol.AcpSchema.AuthenticateResponse;
 import org.eclipse.agents.services.protocol.AcpSchema.InitializeRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.InitializeResponse;
@@ -38,6 +41,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jface.preference.IPreferenceStore;
 
 public abstract class AbstractService implements IAgentService {
 
@@ -46,6 +50,9 @@ public abstract class AbstractService implements IAgentService {
 	InitializeAgentJob initializeJob = null;
 	
 	private AcpClientThread thread;
+	private AcpClientLauncher launcher;
+	private AcpClient acpClient;
+	private AcpDispatchExecutor dispatchExecutor;
 	private Process agentProcess;
 	private InputStream inputStream;
 	private OutputStream outputStream;
@@ -166,8 +173,15 @@ public abstract class AbstractService implements IAgentService {
 				}.start();
 			}
 			
-			AcpClient acpClient = new AcpClient(this);
-			AcpClientLauncher launcher = new AcpClientLauncher(acpClient, inputStream, outputStream);
+			IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+			int queueLimit = store.getInt(IPreferenceConstants.P_ACP_DISPATCH_QUEUE_LIMIT);
+			dispatchExecutor = new AcpDispatchExecutor(getName(),
+					Math.max(1, store.getInt(IPreferenceConstants.P_ACP_DISPATCH_THREADS)),
+					queueLimit,
+					store.getBoolean(IPreferenceConstants.P_ACP_DISPATCH_VIRTUAL_THREADS));
+			
+			acpClient = new AcpClient(this, dispatchExecutor, queueLimit);
+			launcher = new AcpClientLauncher(acpClient, inputStream, outputStream, dispatchExecutor);
 			thread = new AcpClientThread(launcher) {
 				@Override
 				public void statusChanged() {
@@ -176,6 +190,8 @@ public abstract class AbstractService implements IAgentService {
 			};
 			thread.start();
 			
+			final AcpDispatchExecutor _dispatchExecutor = dispatchExecutor;
+			final AcpClientLauncher _launcher = launcher;
 			agentProcess.onExit().thenRun(new Runnable() {
 				@Override
 				public void run() {
@@ -184,6 +200,8 @@ public abstract class AbstractService implements IAgentService {
 					String errorString = null;
 
 					Tracer.trace().trace(Tracer.ACP, "Gemini Exit:" + exitValue);
+					_launcher.close();
+					_dispatchExecutor.shutdown();
 				}
 			});
 
@@ -201,6 +219,15 @@ public abstract class AbstractService implements IAgentService {
 		if (agentProcess != null) {
 			agentProcess.destroy();
 		}
+		if (launcher != null) {
+			launcher.close();
+			launcher = null;
+		}
+		if (dispatchExecutor != null) {
+			// the reader exits once the process streams close, queued work is allowed to drain
+			dispatchExecutor.shutdown();
+			dispatchExecutor = null;
+		}
 		AgentController.instance().agentStopped(AbstractService.this);
 	}
 	
@@ -237,6 +264,11 @@ public abstract class AbstractService implements IAgentService {
 		return thread.getAgent();
 	}
 
+	@Override
+	public Executor getEventExecutor() {
+		return acpClient.getEventExecutor();
+	}
+
 	@Override
 	public abstract String getName();
 
@@ -210,7 +210,7 @@ public class GeminiService extends AbstractService implements IPreferenceConstan
 				"mcp",
 				"add",
 				"--transport", 
-				"sse",
+				Activator.getDefault().getPreferenceStore().getString(P_MCP_SERVER_TRANSPORT),
 				getMCPName(),
 				getMCPUrl()
 				};
@@ -249,8 +249,9 @@ public class GeminiService extends AbstractService implements IPreferenceConstan
 	}
 	
 	private String getMCPUrl() {
+		boolean streamable = MCP_TRANSPORT_HTTP.equals(Activator.getDefault().getPreferenceStore().getString(P_MCP_SERVER_TRANSPORT));
 		return "http://localhost:"
 				+ Activator.getDefault().getPreferenceStore().getString(P_MCP_SERVER_HTTP_PORT)
-				+ "/sse";
+				+ (streamable ? "/mcp" : "/sse");
 	}
 }
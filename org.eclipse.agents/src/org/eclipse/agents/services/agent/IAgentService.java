@@ -16,6 +16,7 @@ package org.eclipse.agents.services.agent;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Executor;
 
 import org.eclipse.agents.services.protocol.AcpSchema.AuthenticateResponse;
 import org.eclipse.agents.services.protocol.AcpSchema.InitializeRequest;
@@ -59,6 +60,11 @@ public interface IAgentService {
 	public IStatus getStatus();
 	
 	public IAcpAgent getAgent();
+
+	/**
+	 * @return executor that runs tasks in order with the agent's session updates
+	 */
+	public Executor getEventExecutor();
 	
 	public InputStream getInputStream();
 
@@ -13,12 +13,21 @@
  *******************************************************************************/
 package org.eclipse.agents.services.protocol;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.agents.Activator;
+import org.eclipse.agents.Tracer;
 import org.eclipse.agents.chat.controller.AgentController;
 import org.eclipse.agents.chat.controller.workspace.WorkspaceController;
 import org.eclipse.agents.services.agent.IAgentService;
+import org.eclipse.agents.services.protocol.AcpSchema.AgentRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.CreateTerminalRequest;
 import org.eclipse.agents.services.protocol.AcpSchema.CreateTerminalResponse;
 import org.eclipse.agents.services.protocol.AcpSchema.KillTerminalCommandRequest;
@@ -38,21 +47,49 @@ import org.eclipse.agents.services.protocol.AcpSchema.WriteTextFileResponse;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.ui.texteditor.ITextEditor;
 
+/**
+ * Handles requests and notifications from the agent.
+ *
+ * Callbacks return to the JSON-RPC reader immediately, work is done on the service's dispatch
+ * executor and anything touching the UI is posted with asyncExec, so a busy UI thread never
+ * holds up streamed session updates.  Listener fan-out runs serially to preserve message order,
+ * through a bounded queue that blocks the reader when full, like the dispatch executor does.
+ */
 public class AcpClient implements IAcpClient {
 
 	IAgentService service;
+	Executor executor;
+	SerialExecutor events;
 	
-	public AcpClient(IAgentService service) {
+	public AcpClient(IAgentService service, Executor executor, int queueLimit) {
 		this.service = service;
+		this.executor = executor;
+		this.events = new SerialExecutor(executor, queueLimit);
+	}
+
+	/**
+	 * @return executor that runs tasks in order with the agent's session updates and requests
+	 */
+	public Executor getEventExecutor() {
+		return events;
 	}
 
 	@Override
 	public CompletableFuture<RequestPermissionResponse> requestPermission(RequestPermissionRequest request) {
 		CompletableFuture<RequestPermissionResponse> future = new CompletableFuture<RequestPermissionResponse>();
 		
-		Activator.getDisplay().syncExec(new Runnable() {
+		// queued behind preceding session updates so the tool call is shown before its permission request
+		events.execute(new Runnable() {
 			public void run() {
-				AgentController.instance().acceptRequestsPermission(request, future);
+				Activator.getDisplay().asyncExec(new Runnable() {
+					public void run() {
+						try {
+							AgentController.instance().acceptRequestsPermission(request, future);
+						} catch (RuntimeException e) {
+							future.completeExceptionally(e);
+						}
+					}
+				});
 			}
 		});
 		
@@ -61,7 +98,7 @@ public class AcpClient implements IAcpClient {
 
 	@Override
 	public CompletableFuture<ReadTextFileResponse> readTextFile(ReadTextFileRequest request) {
-		AgentController.instance().agentRequests(request);
+		notifyListeners(request);
 		
 		Path  absolutePath = new Path(request.path());
 		CompletableFuture<ReadTextFileResponse> result = new CompletableFuture<ReadTextFileResponse>();
@@ -71,20 +108,27 @@ public class AcpClient implements IAcpClient {
 		if (editor != null) {
 			Activator.getDisplay().asyncExec(new Runnable() {
 				public void run() {
-					result.complete(new ReadTextFileResponse(null, 
-							workspaceController.readFromEditor(editor, request.line(), request.limit())));
-					
+					try {
+						result.complete(new ReadTextFileResponse(null, 
+								workspaceController.readFromEditor(editor, request.line(), request.limit())));
+					} catch (RuntimeException e) {
+						result.completeExceptionally(e);
+					}
 				}			
 			});
 		} else {
-			new Thread() {
+			executor.execute(new Runnable() {
 				@Override
 				public void run() {
-					result.complete(new ReadTextFileResponse(null, 
-							workspaceController.readFromFile(absolutePath, request.line(), request.limit())));
+					try {
+						result.complete(new ReadTextFileResponse(null, 
+								workspaceController.readFromFile(absolutePath, request.line(), request.limit())));
+					} catch (RuntimeException e) {
+						result.completeExceptionally(e);
+					}
 				}
 				
-			}.start();
+			});
 			
 		}
 		
@@ -93,68 +137,153 @@ public class AcpClient implements IAcpClient {
 
 	@Override
 	public CompletableFuture<WriteTextFileResponse> writeTextFile(WriteTextFileRequest request) {
-		AgentController.instance().agentRequests(request);
+		notifyListeners(request);
 		
 		Path absolutePath = new Path(request.path());
 		CompletableFuture<WriteTextFileResponse> result = new CompletableFuture<WriteTextFileResponse>();
 		WorkspaceController workspaceController = AgentController.getSession(request.sessionId()).getWorkspaceController();
+		ITextEditor editor = WorkspaceController.findFileEditor(absolutePath);
 
-		new Thread() {
-			@Override
-			public void run() {
-				Activator.getDisplay().syncExec(new Runnable() {
-					public void run() {
-						ITextEditor editor = WorkspaceController.findFileEditor(absolutePath);
-						if (editor != null) {
-							workspaceController.writeToEditor(absolutePath, editor, request.content());
-							result.complete(new WriteTextFileResponse(null));
-						}
-					}			
-				});
-				if (!result.isDone()) {
-					workspaceController.writeToFile(absolutePath, request.content());
-					result.complete(new WriteTextFileResponse(null));
+		if (editor != null) {
+			Activator.getDisplay().asyncExec(new Runnable() {
+				public void run() {
+					try {
+						workspaceController.writeToEditor(absolutePath, editor, request.content());
+						result.complete(new WriteTextFileResponse(null));
+					} catch (RuntimeException e) {
+						result.completeExceptionally(e);
+					}
+				}			
+			});
+		} else {
+			// writes from parallel requests are batched, so the dispatch thread does not wait for them
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						workspaceController.writeToFileAsync(absolutePath, request.content()).whenComplete((value, e) -> {
+							if (e != null) {
+								result.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+							} else {
+								result.complete(new WriteTextFileResponse(null));
+							}
+						});
+					} catch (RuntimeException e) {
+						result.completeExceptionally(e);
+					}
 				}
-			}
-			
-		}.start();
+			});
+		}
 
 		return result;
 	}
 
 	@Override
 	public CompletableFuture<CreateTerminalResponse> terminalCreate(CreateTerminalRequest request) {
-		AgentController.instance().agentRequests(request);
+		notifyListeners(request);
 		return null;
 	}
 
 	@Override
 	public CompletableFuture<TerminalOutputResponse> terminalOutput(TerminalOutputRequest request) {
-		AgentController.instance().agentRequests(request);
+		notifyListeners(request);
 		return null;
 	}
 
 	@Override
 	public CompletableFuture<ReleaseTerminalResponse> terminalRelease(WaitForTerminalExitRequest request) {
-		AgentController.instance().agentRequests(request);
+		notifyListeners(request);
 		return null;
 	}
 
 	@Override
 	public CompletableFuture<WaitForTerminalExitResponse> terminalWaitForExit(CreateTerminalRequest request) {
-		AgentController.instance().agentRequests(request);
+		notifyListeners(request);
 		return null;
 	}
 
 	@Override
 	public CompletableFuture<KillTerminalCommandResponse> terminalKill(KillTerminalCommandRequest request) {
-		AgentController.instance().agentRequests(request);
+		notifyListeners(request);
 		return null;
 	}
 
 	@Override
 	public void update(SessionNotification notification) {
-		AgentController.instance().agentNotifies(notification);
+		events.execute(new Runnable() {
+			public void run() {
+				AgentController.instance().agentNotifies(notification);
+			}
+		});
+	}
+
+	private void notifyListeners(AgentRequest request) {
+		events.execute(new Runnable() {
+			public void run() {
+				AgentController.instance().agentRequests(request);
+			}
+		});
 	}
 
+	/**
+	 * Runs tasks one at a time, in submission order, on a shared executor.  Submitting blocks
+	 * while the queue is full, which applies backpressure to the agent.
+	 */
+	static class SerialExecutor implements Executor {
+
+		private final BlockingQueue<Runnable> tasks;
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+		private final Executor executor;
+		private volatile boolean rejected = false;
+
+		SerialExecutor(Executor executor, int queueLimit) {
+			this.executor = executor;
+			this.tasks = new ArrayBlockingQueue<Runnable>(Math.max(1, queueLimit));
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			try {
+				while (!tasks.offer(task, 1, TimeUnit.SECONDS)) {
+					// nothing drains the queue once the shared executor has been shut down
+					if (rejected) {
+						throw new RejectedExecutionException("ACP event queue has been shut down"); //$NON-NLS-1$
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException(e);
+			}
+			schedule();
+		}
+
+		private void schedule() {
+			if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+				try {
+					executor.execute(this::drain);
+				} catch (RejectedExecutionException e) {
+					rejected = true;
+					scheduled.set(false);
+					tasks.clear();
+				}
+			}
+		}
+
+		private void drain() {
+			try {
+				Runnable task;
+				while ((task = tasks.poll()) != null) {
+					try {
+						task.run();
+					} catch (RuntimeException e) {
+						Tracer.trace().trace(Tracer.ACP, "Failed to dispatch agent message", e); //$NON-NLS-1$
+					}
+				}
+			} finally {
+				scheduled.set(false);
+				// a task may have been offered after the last poll but before the flag was cleared
+				schedule();
+			}
+		}
+	}
 }
@@ -13,25 +13,18 @@
  *******************************************************************************/
 package org.eclipse.agents.services.protocol;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import org.eclipse.lsp4j.jsonrpc.Endpoint;
-import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
 import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
 import org.eclipse.lsp4j.jsonrpc.json.ConcurrentMessageProcessor;
 import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
-import org.eclipse.lsp4j.jsonrpc.json.StreamMessageConsumer;
-import org.eclipse.lsp4j.jsonrpc.messages.Message;
 import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
 
 import com.google.gson.Gson;
@@ -40,34 +33,17 @@ public class AcpClientLauncher implements Launcher<IAcpAgent> {
 
 	private final Launcher<IAcpAgent> launcher;
 	private boolean traceLsp4jJsonrpc = true; //Boolean.getBoolean("org.eclipse.acp.trace.lsp4j.jsonrpc"); //$NON-NLS-1$
-	private Object lock = new Object();
+	private AcpMessageWriter messageWriter;
 	private Gson gson;
 	
-	public AcpClientLauncher(IAcpClient acpClient, InputStream is, OutputStream os) {
+	public AcpClientLauncher(IAcpClient acpClient, InputStream is, OutputStream os, ExecutorService executorService) {
 		
 		Builder<IAcpAgent> builder = new Builder<IAcpAgent>() {
 
 			@Override
 			protected RemoteEndpoint createRemoteEndpoint(MessageJsonHandler jsonHandler) {
-				MessageConsumer outgoingMessageStream = new StreamMessageConsumer(output, jsonHandler) {
-					@Override
-					public void consume(Message message) {
-						try {
-							String content = jsonHandler.serialize(message);
-							byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8.name());
-							
-							synchronized (lock) {
-								output.write(contentBytes);
-								output.write("\n".getBytes(StandardCharsets.UTF_8.name()));
-								output.flush();
-							}
-						} catch (IOException exception) {
-							throw new JsonRpcException(exception);
-						}
-//						super.consume(message);
-					}
-					
-				};
+				messageWriter = new AcpMessageWriter(output, jsonHandler);
+				MessageConsumer outgoingMessageStream = messageWriter;
 				outgoingMessageStream = wrapMessageConsumer(outgoingMessageStream);
 				Endpoint localEndpoint = ServiceEndpoints.toEndpoint(localServices);
 				RemoteEndpoint remoteEndpoint;
@@ -90,6 +66,8 @@ public class AcpClientLauncher implements Launcher<IAcpAgent> {
 					throw new IllegalStateException("Local service must be configured.");
 				if (remoteInterfaces == null)
 					throw new IllegalStateException("Remote interface must be configured.");
+				if (executorService == null)
+					throw new IllegalStateException("Executor service must be configured.");
 
 				// Create the JSON handler, remote endpoint and remote proxy
 				MessageJsonHandler jsonHandler = createJsonHandler();
@@ -103,8 +81,7 @@ public class AcpClientLauncher implements Launcher<IAcpAgent> {
 				final var reader = new StdinoutMessageProducer(input, jsonHandler, remoteEndpoint);
 				MessageConsumer messageConsumer = wrapMessageConsumer(remoteEndpoint);
 				ConcurrentMessageProcessor msgProcessor = createMessageProcessor(reader, messageConsumer, remoteProxy);
-				ExecutorService execService = executorService != null ? executorService : Executors.newCachedThreadPool();
-				return createLauncher(execService, remoteProxy, remoteEndpoint, msgProcessor);
+				return createLauncher(executorService, remoteProxy, remoteEndpoint, msgProcessor);
 			}
 		};
 		
@@ -119,6 +96,7 @@ public class AcpClientLauncher implements Launcher<IAcpAgent> {
 					.setRemoteInterface(IAcpAgent.class)
 					.setInput(is)
 					.setOutput(os)
+					.setExecutorService(executorService)
 					.traceMessages(tracer)
 					.configureGson(gsonBuilder->{
 						typeAdapters.registerTypeAdapters(gsonBuilder);
@@ -130,13 +108,16 @@ public class AcpClientLauncher implements Launcher<IAcpAgent> {
 	}
 
 	public Future<Void> startListening() {
-		return CompletableFuture.runAsync(() -> {
-			try {
-				this.launcher.startListening().get();
-			} catch (Exception e) {
-				throw new RuntimeException(e);
-			}
-		}, Executors.newSingleThreadExecutor());
+		return this.launcher.startListening();
+	}
+
+	/**
+	 * Stops the outgoing message writer once pending messages are written
+	 */
+	public void close() {
+		if (messageWriter != null) {
+			messageWriter.close();
+		}
 	}
 
 	public IAcpAgent getRemoteProxy() {
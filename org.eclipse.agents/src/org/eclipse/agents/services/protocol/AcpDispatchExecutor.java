@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.services.protocol;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.agents.Tracer;
+
+/**
+ * Bounded executor owned by a single agent service.
+ *
+ * One thread runs the ACP message reader, the remaining threads run work dispatched
+ * for agent requests.  When the queue is full, the submitting thread (usually the reader)
+ * blocks until there is room, which applies backpressure to the agent.
+ */
+public class AcpDispatchExecutor extends ThreadPoolExecutor {
+
+	private static final long KEEP_ALIVE_SECONDS = 30;
+
+	public AcpDispatchExecutor(String name, int threads, int queueLimit, boolean virtualThreads) {
+		// one extra thread is held by the message reader for the life of the agent
+		super(threads + 1, threads + 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(1, queueLimit)));
+
+		allowCoreThreadTimeOut(true);
+		setThreadFactory(createThreadFactory("ACP Dispatch (" + name + ")", virtualThreads));
+		setRejectedExecutionHandler((runnable, executor) -> {
+			if (executor.isShutdown()) {
+				throw new RejectedExecutionException("ACP dispatch executor for " + name + " has been shut down");
+			}
+			try {
+				executor.getQueue().put(runnable);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException(e);
+			}
+			// shut down while waiting for room, a task still in the queue would never run
+			if (executor.isShutdown() && executor.remove(runnable)) {
+				throw new RejectedExecutionException("ACP dispatch executor for " + name + " has been shut down");
+			}
+		});
+	}
+
+	private static ThreadFactory createThreadFactory(String prefix, boolean virtualThreads) {
+		if (virtualThreads) {
+			// Thread.ofVirtual() is only available on JDK 21+, while the bundle targets JavaSE-17
+			try {
+				Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+				Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+				builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix + " #", 1L);
+				return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+			} catch (ReflectiveOperationException e) {
+				Tracer.trace().trace(Tracer.ACP, "Virtual threads unavailable, using platform threads"); //$NON-NLS-1$
+			}
+		}
+
+		AtomicInteger count = new AtomicInteger(1);
+		return runnable -> {
+			Thread thread = new Thread(runnable, prefix + " #" + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
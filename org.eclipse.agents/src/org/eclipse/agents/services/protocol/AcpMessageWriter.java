@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2025 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.agents.services.protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.agents.Tracer;
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+
+/**
+ * Writes newline delimited JSON-RPC messages to an agent's stdin from a single thread.
+ *
+ * Callers serialize their message straight into a reusable UTF-8 buffer, holding its lock only
+ * while encoding.  A message that fails to serialize is rolled back out of the buffer and fails
+ * its caller, so it never reaches the stream.  The writer thread swaps the filled buffer for an
+ * empty one and writes and flushes it outside the lock, so a burst of responses costs a single
+ * write and flush, and callers never wait on the agent's stdin.
+ */
+public class AcpMessageWriter implements MessageConsumer, Closeable {
+
+	// buffers that grew past this size for an unusually large message are released after writing
+	private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+	private final OutputStream output;
+	private final MessageJsonHandler jsonHandler;
+	private final Thread thread;
+
+	// filled by callers, and swapped with the buffer the writer thread has written, under this lock
+	private final Object lock = new Object();
+	private final EncodingWriter writer = new EncodingWriter();
+	private MessageBuffer pending = new MessageBuffer();
+	private MessageBuffer written = new MessageBuffer();
+
+	private volatile boolean running = true;
+	private volatile IOException failure = null;
+
+	public AcpMessageWriter(OutputStream output, MessageJsonHandler jsonHandler) {
+		this.output = output;
+		this.jsonHandler = jsonHandler;
+
+		thread = new Thread(this::run, "ACP Writer"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void consume(Message message) throws JsonRpcException {
+		synchronized (lock) {
+			if (failure != null) {
+				throw new JsonRpcException(failure);
+			}
+			if (!running) {
+				throw new JsonRpcException(new IOException("ACP message writer has been closed")); //$NON-NLS-1$
+			}
+			int mark = pending.size();
+			try {
+				writer.begin(pending);
+				jsonHandler.serialize(message, writer);
+				writer.finish();
+				pending.write('\n');
+			} catch (RuntimeException e) {
+				// drop the partially serialized message, lsp4j completes a request that could not be sent exceptionally
+				writer.reset();
+				pending.truncate(mark);
+				Tracer.trace().trace(Tracer.ACP, "Failed to serialize " + message, e); //$NON-NLS-1$
+				throw new JsonRpcException(e);
+			}
+		}
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Stops accepting messages, pending messages are still written
+	 */
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(thread);
+	}
+
+	private void run() {
+		try {
+			while (true) {
+				MessageBuffer next = null;
+				synchronized (lock) {
+					if (pending.size() > 0) {
+						next = pending;
+						pending = written;
+						written = next;
+					} else if (!running) {
+						break;
+					}
+				}
+				if (next == null) {
+					LockSupport.park(this);
+					continue;
+				}
+
+				next.writeTo(output);
+				output.flush();
+
+				synchronized (lock) {
+					if (written.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+						written = new MessageBuffer();
+					} else {
+						written.reset();
+					}
+				}
+			}
+		} catch (IOException e) {
+			synchronized (lock) {
+				failure = e;
+				running = false;
+				pending.reset();
+			}
+			Tracer.trace().trace(Tracer.ACP, "ACP message writer stopped", e); //$NON-NLS-1$
+		}
+	}
+
+	private static class MessageBuffer extends ByteArrayOutputStream {
+
+		MessageBuffer() {
+			super(8 * 1024);
+		}
+
+		int capacity() {
+			return buf.length;
+		}
+
+		void truncate(int size) {
+			count = size;
+		}
+
+		/**
+		 * @return the free space of the buffer from its end, grown to at least length bytes
+		 */
+		ByteBuffer reserve(int length) {
+			if (buf.length - count < length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + length));
+			}
+			return ByteBuffer.wrap(buf, count, buf.length - count);
+		}
+
+		/**
+		 * Keeps the bytes encoded into a buffer returned by {@link #reserve(int)}
+		 */
+		void commit(ByteBuffer bytes) {
+			count = bytes.position();
+		}
+	}
+
+	/**
+	 * Encodes the characters written to it as UTF-8 directly into a message buffer
+	 */
+	private static class EncodingWriter extends Writer {
+
+		private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		private final CharBuffer chars = CharBuffer.allocate(4 * 1024);
+		private MessageBuffer target;
+
+		void begin(MessageBuffer target) {
+			this.target = target;
+		}
+
+		/**
+		 * Encodes the remaining characters of the message
+		 */
+		void finish() {
+			encode(true);
+			ByteBuffer bytes = target.reserve(8);
+			encoder.flush(bytes);
+			target.commit(bytes);
+			reset();
+		}
+
+		/**
+		 * Discards the characters not encoded yet and the state of the encoder
+		 */
+		void reset() {
+			chars.clear();
+			encoder.reset();
+			target = null;
+		}
+
+		@Override
+		public void write(int c) {
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+			chars.put((char)c);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			while (len > 0) {
+				if (!chars.hasRemaining()) {
+					encode(false);
+				}
+				int n = Math.min(len, chars.remaining());
+				chars.put(cbuf, off, n);
+				off += n;
+				len -= n;
+			}
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			while (len > 0) {
+				if (!chars.hasRemaining()) {
+					encode(false);
+				}
+				int n = Math.min(len, chars.remaining());
+				chars.put(str, off, off + n);
+				off += n;
+				len -= n;
+			}
+		}
+
+		private void encode(boolean endOfInput) {
+			chars.flip();
+			CoderResult result;
+			do {
+				// a character encodes to at most 3 bytes, a surrogate pair to 4
+				ByteBuffer bytes = target.reserve(chars.remaining() * 3 + 4);
+				result = encoder.encode(chars, bytes, endOfInput);
+				target.commit(bytes);
+			} while (result.isOverflow());
+			// an unpaired high surrogate at the end waits for the next characters
+			chars.compact();
+		}
+
+		@Override
+		public void flush() {
+			// characters are encoded when the message is finished
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
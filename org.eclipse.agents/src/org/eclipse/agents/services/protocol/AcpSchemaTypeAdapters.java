@@ -14,6 +14,13 @@
 package org.eclipse.agents.services.protocol;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.agents.services.protocol.AcpSchema.AudioBlock;
 import org.eclipse.agents.services.protocol.AcpSchema.BlobResourceContents;
@@ -40,16 +47,22 @@ import org.eclipse.agents.services.protocol.AcpSchema.ToolCallContentTerminal;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 public class AcpSchemaTypeAdapters {
 
 	Gson gson;
 	
+	Map<Class<?>, RecordBinder<?>> binders = new ConcurrentHashMap<Class<?>, RecordBinder<?>>();
+	
 	public AcpSchemaTypeAdapters() {
 		GsonBuilder builder = new GsonBuilder();
 		registerTypeAdapters(builder);
@@ -63,118 +76,226 @@ public class AcpSchemaTypeAdapters {
 		builder.registerTypeAdapter(ToolCallContent.class, new ToolCallContentAdapter());
 	}
 	
+	@SuppressWarnings("unchecked")
+	<R> RecordBinder<R> getBinder(Class<R> type) {
+		return (RecordBinder<R>)binders.computeIfAbsent(type, t -> new RecordBinder<R>(t));
+	}
+	
 	abstract class AbstractTypeAdapter<T> extends TypeAdapter<T> {
+		@SuppressWarnings("unchecked")
 		@Override
 		public void write(JsonWriter out, T value) throws IOException {
-			out.jsonValue(gson.toJson(value));
+			if (value == null) {
+				out.nullValue();
+			} else {
+				// concrete record types have no registered adapter, so this streams through gson's reflective adapter
+				((TypeAdapter<T>)gson.getAdapter(value.getClass())).write(out, value);
+			}
 		}
 	}
 	
-	class SessionUpdateAdapter extends AbstractTypeAdapter<SessionUpdate> {
+	/**
+	 * Reads a polymorphic record in a single pass.  Properties are bound straight into
+	 * the record selected by the discriminator; only properties that precede the 
+	 * discriminator are buffered as json elements.
+	 */
+	abstract class DiscriminatedTypeAdapter<T> extends AbstractTypeAdapter<T> {
+		
+		// name of the property whose value selects the type, or null when the presence of a property selects it
+		private final String discriminator;
+		private final Map<String, Class<? extends T>> types = new HashMap<String, Class<? extends T>>();
+		
+		DiscriminatedTypeAdapter(String discriminator) {
+			this.discriminator = discriminator;
+		}
+		
+		void register(String key, Class<? extends T> type) {
+			types.put(key, type);
+		}
+		
 		@Override
-		public SessionUpdate read(JsonReader in) throws IOException {
-			if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                in.nextNull();
-                return null;
-            }
-
+		public T read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
 			
-			JsonObject jsonObject = JsonParser.parseReader(in).getAsJsonObject();
-            String sessionUpdate = jsonObject.get("sessionUpdate").getAsString();
-            switch(sessionUpdate) {
-            case "user_message_chunk":
-            	return gson.fromJson(jsonObject, SessionUserMessageChunk.class);
-            case "agent_message_chunk":
-            	return gson.fromJson(jsonObject, SessionAgentMessageChunk.class);
-            case "agent_thought_chunk":
-            	return gson.fromJson(jsonObject, SessionAgentThoughtChunk.class);
-            case "tool_call":
-            	return gson.fromJson(jsonObject, SessionToolCall.class);
-            case "tool_call_update":
-            	return gson.fromJson(jsonObject, SessionToolCallUpdate.class);
-            case "plan":
-            	return gson.fromJson(jsonObject, SessionPlan.class);
-            case "available_commands_update":
-            	return gson.fromJson(jsonObject, SessionAvailableCommandsUpdate.class);
-            case "current_mode_update":
-            	return gson.fromJson(jsonObject, SessionModeUpdate.class);
-            }
-
-            return null;
+			RecordBinder<? extends T> binder = null;
+			Object[] values = null;
+			Map<String, JsonElement> pending = null;
+			boolean unknown = false;
+			
+			in.beginObject();
+			while (in.hasNext()) {
+				String name = in.nextName();
+				if (binder != null) {
+					binder.read(values, name, in);
+				} else if (unknown) {
+					in.skipValue();
+				} else if (discriminator == null ? types.containsKey(name) : discriminator.equals(name)) {
+					if (discriminator == null) {
+						binder = getBinder(types.get(name));
+						values = binder.newValues();
+						binder.read(values, name, in);
+					} else {
+						String value = in.nextString();
+						Class<? extends T> type = types.get(value);
+						if (type == null) {
+							unknown = true;
+							continue;
+						}
+						binder = getBinder(type);
+						values = binder.newValues();
+						binder.set(values, name, value);
+					}
+					if (pending != null) {
+						for (Map.Entry<String, JsonElement> entry: pending.entrySet()) {
+							binder.read(values, entry.getKey(), entry.getValue());
+						}
+						pending = null;
+					}
+				} else {
+					if (pending == null) {
+						pending = new LinkedHashMap<String, JsonElement>();
+					}
+					pending.put(name, JsonParser.parseReader(in));
+				}
+			}
+			in.endObject();
+			
+			return binder == null ? null : binder.create(values);
 		}
-		
-	};
+	}
 	
-	class ContentBlockAdapter extends AbstractTypeAdapter<ContentBlock> {
+	/**
+	 * Binds json properties to the components of a record, resolving the 
+	 * component type adapters and canonical constructor once per record type.
+	 */
+	class RecordBinder<R> {
 		
-		@Override
-		public ContentBlock read(JsonReader in) throws IOException {
-			if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                in.nextNull();
-                return null;
-            }
+		private final Constructor<R> constructor;
+		private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+		private final TypeAdapter<?>[] adapters;
+		private final Object[] defaults;
 		
-			JsonObject jsonObject = JsonParser.parseReader(in).getAsJsonObject();
-			String typeString = jsonObject.get("type").getAsString();
+		RecordBinder(Class<?> recordType) {
+			@SuppressWarnings("unchecked")
+			Class<R> type = (Class<R>)recordType;
+			RecordComponent[] components = type.getRecordComponents();
+			Class<?>[] parameterTypes = new Class<?>[components.length];
+			adapters = new TypeAdapter<?>[components.length];
+			defaults = new Object[components.length];
+			
+			for (int i = 0; i < components.length; i++) {
+				RecordComponent component = components[i];
+				parameterTypes[i] = component.getType();
+				adapters[i] = gson.getAdapter(TypeToken.get(component.getGenericType()));
+				if (component.getType().isPrimitive()) {
+					defaults[i] = Array.get(Array.newInstance(component.getType(), 1), 0);
+				}
+				
+				String name = component.getName();
+				try {
+					SerializedName serializedName = type.getDeclaredField(name).getAnnotation(SerializedName.class);
+					if (serializedName != null) {
+						name = serializedName.value();
+					}
+				} catch (NoSuchFieldException e) {
+					// record components always have a backing field
+				}
+				indexes.put(name, i);
+			}
 			
-			switch (typeString) {
-			case "text":
-				return gson.fromJson(jsonObject, TextBlock.class);
-			case "image":
-				return gson.fromJson(jsonObject, ImageBlock.class);
-			case "audio":
-				return gson.fromJson(jsonObject, AudioBlock.class);
-			case "resource_link":
-				return gson.fromJson(jsonObject, ResourceLinkBlock.class);
-			case "resource":
-				return gson.fromJson(jsonObject, EmbeddedResourceBlock.class);
+			try {
+				constructor = type.getDeclaredConstructor(parameterTypes);
+				constructor.setAccessible(true);
+			} catch (NoSuchMethodException e) {
+				throw new JsonParseException("No canonical constructor for " + type.getName(), e);
 			}
-			return null;
 		}
-	};
-	
-	class EmbeddedResourceResourcekAdapter extends AbstractTypeAdapter<EmbeddedResourceResource> {
 		
-		@Override
-		public EmbeddedResourceResource read(JsonReader in) throws IOException {
-			if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                in.nextNull();
-                return null;
-            }
+		Object[] newValues() {
+			return defaults.clone();
+		}
 		
-			JsonObject jsonObject = JsonParser.parseReader(in).getAsJsonObject();
-			if (jsonObject.has("blob")) {
-				return gson.fromJson(jsonObject, BlobResourceContents.class);
-			} else if (jsonObject.has("text")) {
-				return gson.fromJson(jsonObject, TextResourceContents.class);
+		void set(Object[] values, String name, Object value) {
+			Integer index = indexes.get(name);
+			if (index != null) {
+				values[index] = value;
 			}
-
-			return null;
 		}
-	};
-	
-	class ToolCallContentAdapter extends AbstractTypeAdapter<ToolCallContent> {
 		
-		@Override
-		public ToolCallContent read(JsonReader in) throws IOException {
-			if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                in.nextNull();
-                return null;
-            }
+		void read(Object[] values, String name, JsonReader in) throws IOException {
+			Integer index = indexes.get(name);
+			if (index == null) {
+				in.skipValue();
+			} else {
+				Object value = adapters[index].read(in);
+				if (value != null || defaults[index] == null) {
+					values[index] = value;
+				}
+			}
+		}
 		
-			JsonObject jsonObject = JsonParser.parseReader(in).getAsJsonObject();
-			String typeString = jsonObject.get("type").getAsString();
-			
-			switch (typeString) {
-			case "content":
-				return gson.fromJson(jsonObject, ToolCallContentContent.class);
-			case "diff":
-				return gson.fromJson(jsonObject, ToolCallContentDiff.class);
-			case "terminal":
-				return gson.fromJson(jsonObject, ToolCallContentTerminal.class);
-
+		void read(Object[] values, String name, JsonElement element) {
+			Integer index = indexes.get(name);
+			if (index != null) {
+				Object value = adapters[index].fromJsonTree(element);
+				if (value != null || defaults[index] == null) {
+					values[index] = value;
+				}
+			}
+		}
+		
+		R create(Object[] values) {
+			try {
+				return constructor.newInstance(values);
+			} catch (ReflectiveOperationException e) {
+				throw new JsonParseException("Failed to create " + constructor.getDeclaringClass().getName(), e);
 			}
-			return null;
+		}
+	}
+	
+	class SessionUpdateAdapter extends DiscriminatedTypeAdapter<SessionUpdate> {
+		SessionUpdateAdapter() {
+			super("sessionUpdate");
+			register("user_message_chunk", SessionUserMessageChunk.class);
+			register("agent_message_chunk", SessionAgentMessageChunk.class);
+			register("agent_thought_chunk", SessionAgentThoughtChunk.class);
+			register("tool_call", SessionToolCall.class);
+			register("tool_call_update", SessionToolCallUpdate.class);
+			register("plan", SessionPlan.class);
+			register("available_commands_update", SessionAvailableCommandsUpdate.class);
+			register("current_mode_update", SessionModeUpdate.class);
+		}
+	};
+	
+	class ContentBlockAdapter extends DiscriminatedTypeAdapter<ContentBlock> {
+		ContentBlockAdapter() {
+			super("type");
+			register("text", TextBlock.class);
+			register("image", ImageBlock.class);
+			register("audio", AudioBlock.class);
+			register("resource_link", ResourceLinkBlock.class);
+			register("resource", EmbeddedResourceBlock.class);
+		}
+	};
+	
+	class EmbeddedResourceResourcekAdapter extends DiscriminatedTypeAdapter<EmbeddedResourceResource> {
+		EmbeddedResourceResourcekAdapter() {
+			// discriminated by which content property is present
+			super(null);
+			register("blob", BlobResourceContents.class);
+			register("text", TextResourceContents.class);
+		}
+	};
+	
+	class ToolCallContentAdapter extends DiscriminatedTypeAdapter<ToolCallContent> {
+		ToolCallContentAdapter() {
+			super("type");
+			register("content", ToolCallContentContent.class);
+			register("diff", ToolCallContentDiff.class);
+			register("terminal", ToolCallContentTerminal.class);
 		}
 	}
 	
@@ -13,12 +13,16 @@
  *******************************************************************************/
 package org.eclipse.agents.services.protocol;
 
-import java.io.BufferedReader;
+import java.io.CharArrayReader;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,10 +37,22 @@ import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
 import org.eclipse.lsp4j.jsonrpc.json.StreamMessageProducer;
 import org.eclipse.lsp4j.jsonrpc.messages.Message;
 
+/**
+ * Reads newline delimited JSON-RPC messages from an agent's stdout.
+ * 
+ * Frames are located by scanning a reusable byte buffer for '\n' and are decoded
+ * into a reusable char buffer that is streamed into the json handler, so no
+ * intermediate String is created per message.
+ */
 public class StdinoutMessageProducer implements MessageProducer, Closeable, MessageConstants {
 
 	private static final Logger LOG = Logger.getLogger(StreamMessageProducer.class.getName());
 
+	private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+	
+	// buffers that grew past this size for an unusually large message are released once drained
+	private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
 	private final MessageJsonHandler jsonHandler;
 	private final MessageIssueHandler issueHandler;
 
@@ -45,6 +61,12 @@ public class StdinoutMessageProducer implements MessageProducer, Closeable, Mess
 	private MessageConsumer callback;
 	private boolean keepRunning;
 
+	private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+	private CharBuffer chars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
 	public StdinoutMessageProducer(InputStream input, MessageJsonHandler jsonHandler) {
 		this(input, jsonHandler, null);
 	}
@@ -76,20 +98,45 @@ public class StdinoutMessageProducer implements MessageProducer, Closeable, Mess
 		this.keepRunning = true;
 		this.callback = callback;
 		try {
-			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
-			StringBuilder debugBuilder = null;
+			// unconsumed bytes are in buffer[start, end), bytes before scan contain no newline
+			int start = 0, scan = 0, end = 0;
 			while (keepRunning) {
-				String line = reader.readLine();
-				if (line == null) {
-					// End of input stream has been reached
+				if (end == buffer.length) {
+					if (start > 0) {
+						System.arraycopy(buffer, start, buffer, 0, end - start);
+						end -= start;
+						scan -= start;
+						start = 0;
+					} else {
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					}
+				}
+
+				int read = input.read(buffer, end, buffer.length - end);
+				if (read == -1) {
+					// End of input stream has been reached, deliver any unterminated last message
+					if (end > start) {
+						handleMessage(buffer, start, end - start);
+					}
 					keepRunning = false;
-				} else {
-					if (debugBuilder == null)
-						debugBuilder = new StringBuilder();
-					debugBuilder.append(line);
-					boolean result = handleMessage(line);
-					if (!result) {
-						keepRunning = false;
+					break;
+				}
+				end += read;
+
+				for (; scan < end && keepRunning; scan++) {
+					if (buffer[scan] == '\n') {
+						boolean result = handleMessage(buffer, start, scan - start);
+						if (!result) {
+							keepRunning = false;
+						}
+						start = scan + 1;
+					}
+				}
+
+				if (start == end) {
+					start = scan = end = 0;
+					if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+						buffer = new byte[INITIAL_BUFFER_SIZE];
 					}
 				}
 			} // while (keepRunning)
@@ -123,19 +170,38 @@ public class StdinoutMessageProducer implements MessageProducer, Closeable, Mess
 	}
 
 	/**
-	 * Read the JSON content part of a message, parse it, and notify the callback.
+	 * Decode one newline delimited frame, parse it, and notify the callback.
 	 *
 	 * @return {@code true} if we should continue reading from the input stream, {@code false} if we should stop
 	 */
-	protected boolean handleMessage(String line) throws IOException {
+	protected boolean handleMessage(byte[] frame, int offset, int length) throws IOException {
+		if (length > 0 && frame[offset + length - 1] == '\r') {
+			length--;
+		}
+		if (length == 0) {
+			return true;
+		}
+
 		if (callback == null) {
 			callback = message -> LOG.log(Level.INFO, "Received message: " + message);
 		}
 
 		try {
-			Tracer.trace().trace(Tracer.ACP, line);
+			// UTF-8 never decodes to more chars than there are bytes
+			if (chars.capacity() < length || (chars.capacity() > MAX_RETAINED_BUFFER_SIZE && length <= MAX_RETAINED_BUFFER_SIZE)) {
+				chars = CharBuffer.allocate(Math.max(length, INITIAL_BUFFER_SIZE));
+			}
+			chars.clear();
+			decoder.reset();
+			decoder.decode(ByteBuffer.wrap(frame, offset, length), chars, true);
+			decoder.flush(chars);
+			chars.flip();
+
+			if (Tracer.isEnabled(Tracer.ACP)) {
+				Tracer.trace().trace(Tracer.ACP, chars.toString());
+			}
 			
-			Message message = jsonHandler.parseMessage(line);
+			Message message = jsonHandler.parseMessage(new CharArrayReader(chars.array(), 0, chars.limit()));
 			callback.consume(message);	
 		} catch (MessageIssueException exception) {
 			// An issue was found while parsing or validating the message
@@ -144,7 +210,6 @@ public class StdinoutMessageProducer implements MessageProducer, Closeable, Mess
 			else
 				fireError(exception);
 		} catch (Exception exception) {
-			// UnsupportedEncodingException can be thrown by String constructor
 			// JsonParseException can be thrown by jsonHandler
 			// We also catch arbitrary exceptions that are thrown by message consumers in order to keep this thread alive
 			fireError(exception);